@@ -0,0 +1,97 @@
+#!/usr/bin/env bash
+# 接口压测脚本，用于比较平台线程与虚拟线程模式（sky.threads.virtual）下的吞吐量和延迟
+# 只依赖 curl、xargs、awk，使用本地存储（sky.storage.type=local），不访问OSS
+#
+# 用法：
+#   1. 打包并以要比较的模式启动服务，两次测试使用相同的数据库和参数：
+#        mvn -B package -DskipTests
+#        java -jar sky-server/target/sky-server-1.0-SNAPSHOT.jar --sky.storage.type=local --sky.threads.virtual=false
+#        java -jar sky-server/target/sky-server-1.0-SNAPSHOT.jar --sky.storage.type=local --sky.threads.virtual=true   # 需要JDK 21
+#   2. 运行脚本：
+#        CONCURRENCY=200 REQUESTS=5000 ./sky-bench/scripts/loadtest.sh
+#
+# 可用的环境变量：
+#   BASE_URL      服务地址，默认 http://localhost:8080
+#   USERNAME      登录用户名，默认 admin
+#   PASSWORD      登录密码，默认 123456
+#   TOKEN_NAME    令牌请求头，与 sky.jwt.admin-token-name 一致，默认 token
+#   CONCURRENCY   并发请求数，默认 100
+#   REQUESTS      每个场景的请求总数，默认 2000
+#   FILE_SIZE_KB  上传文件大小（KB），默认 256；每次上传的内容都不同，不会被按内容去重跳过
+#
+# 输出每个场景的成功数、失败数、吞吐量和延迟分位数（毫秒）
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+USERNAME=${USERNAME:-admin}
+PASSWORD=${PASSWORD:-123456}
+TOKEN_NAME=${TOKEN_NAME:-token}
+CONCURRENCY=${CONCURRENCY:-100}
+REQUESTS=${REQUESTS:-2000}
+FILE_SIZE_KB=${FILE_SIZE_KB:-256}
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+TOKEN=$(curl -s -H 'Content-Type: application/json' \
+    -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" \
+    "$BASE_URL/admin/employee/login" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+if [ -z "$TOKEN" ]; then
+    echo "登录失败，检查 BASE_URL、USERNAME、PASSWORD" >&2
+    exit 1
+fi
+
+# 上传文件的公共部分，每次请求再追加请求序号，保证内容不同
+head -c $((FILE_SIZE_KB * 1024)) /dev/urandom > "$WORK_DIR/base.bin"
+
+export BASE_URL TOKEN_NAME TOKEN WORK_DIR
+
+# 每个请求输出一行：HTTP状态码 业务是否成功（1/0） 耗时（秒）
+report() {
+    local body=$1
+    local stats=$2
+    local ok=0
+    if grep -q '"code":1' "$body" 2>/dev/null; then
+        ok=1
+    fi
+    rm -f "$body"
+    echo "${stats% *} $ok ${stats#* }"
+}
+
+page_request() {
+    local body="$WORK_DIR/page.$1.out"
+    report "$body" "$(curl -s -o "$body" -w '%{http_code} %{time_total}' \
+        -H "$TOKEN_NAME: $TOKEN" "$BASE_URL/admin/employee/page?page=1&pageSize=10")"
+}
+
+upload_request() {
+    local file="$WORK_DIR/upload.$1.jpg"
+    local body="$WORK_DIR/upload.$1.out"
+    { cat "$WORK_DIR/base.bin"; echo "$1-$RANDOM"; } > "$file"
+    report "$body" "$(curl -s -o "$body" -w '%{http_code} %{time_total}' \
+        -H "$TOKEN_NAME: $TOKEN" -F "file=@$file" "$BASE_URL/admin/common/upload")"
+    rm -f "$file"
+}
+
+export -f report page_request upload_request
+
+run() {
+    local name=$1
+    local fn=$2
+    local out="$WORK_DIR/$name.txt"
+    local start end
+    start=$(date +%s%N)
+    seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} bash -c "$fn {}" > "$out"
+    end=$(date +%s%N)
+    sort -k3 -n "$out" | awk -v name="$name" -v elapsed_ns=$((end - start)) '
+        function pct(p,    i) { i = int(NR * p); if (i < 1) i = 1; return t[i] }
+        { t[NR] = $3 * 1000; if ($1 == 200 && $2 == 1) ok++; else failed++ }
+        END {
+            printf "%-8s 成功 %d  失败 %d  吞吐 %.1f 次/秒  p50 %.1f  p90 %.1f  p99 %.1f  最大 %.1f ms\n",
+                name, ok, failed, NR / (elapsed_ns / 1e9), pct(0.5), pct(0.9), pct(0.99), t[NR]
+        }'
+}
+
+echo "服务 $BASE_URL，并发 $CONCURRENCY，每个场景 $REQUESTS 次请求，上传文件 ${FILE_SIZE_KB}KB"
+run page page_request
+run upload upload_request
@@ -0,0 +1,102 @@
+package com.sky.bench;
+
+import com.sky.aspect.AutoFillAccessor;
+import com.sky.constant.AutoFillConstant;
+import com.sky.entity.Dish;
+import com.sky.enumeration.OperationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公共字段赋值的基准测试：原来的切面每次调用都用getDeclaredMethod查找setter再反射调用，
+ * 与AutoFillAccessor的接口调用（实现Auditable的实体）和LambdaMetafactory生成的setter（其他实体）对比
+ * <p>
+ * 运行：java -jar sky-bench/target/benchmarks.jar AutoFillBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AutoFillBenchmark {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Long currentId = 1L;
+    private final Dish dish = new Dish();
+    private final PlainEntity plain = new PlainEntity();
+
+    @Benchmark
+    public Object reflectionAuditable() throws Exception {
+        return reflectionFill(dish);
+    }
+
+    @Benchmark
+    public Object accessorAuditable() {
+        AutoFillAccessor.of(dish.getClass()).fill(dish, OperationType.INSERT, now, currentId);
+        return dish;
+    }
+
+    @Benchmark
+    public Object reflectionPlain() throws Exception {
+        return reflectionFill(plain);
+    }
+
+    @Benchmark
+    public Object accessorPlain() {
+        AutoFillAccessor.of(plain.getClass()).fill(plain, OperationType.INSERT, now, currentId);
+        return plain;
+    }
+
+    /**
+     * 与原AutoFillAspect中INSERT分支相同的写法
+     */
+    private Object reflectionFill(Object entity) throws Exception {
+        Method setCreateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_TIME, LocalDateTime.class);
+        Method setCreateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_USER, Long.class);
+        Method setUpdateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
+        Method setUpdateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_USER, Long.class);
+        setCreateTime.invoke(entity, now);
+        setCreateUser.invoke(entity, currentId);
+        setUpdateTime.invoke(entity, now);
+        setUpdateUser.invoke(entity, currentId);
+        return entity;
+    }
+
+    /**
+     * 没有实现Auditable的实体，走LambdaMetafactory生成的setter
+     */
+    public static class PlainEntity {
+        private LocalDateTime createTime;
+        private Long createUser;
+        private LocalDateTime updateTime;
+        private Long updateUser;
+
+        public void setCreateTime(LocalDateTime createTime) {
+            this.createTime = createTime;
+        }
+
+        public void setCreateUser(Long createUser) {
+            this.createUser = createUser;
+        }
+
+        public void setUpdateTime(LocalDateTime updateTime) {
+            this.updateTime = updateTime;
+        }
+
+        public void setUpdateUser(Long updateUser) {
+            this.updateUser = updateUser;
+        }
+    }
+}
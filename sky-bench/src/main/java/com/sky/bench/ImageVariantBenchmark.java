@@ -0,0 +1,107 @@
+package com.sky.bench;
+
+import com.sky.properties.ImageProperties;
+import com.sky.storage.LocalObjectStorage;
+import com.sky.utils.ImageVariantGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 缩略图生成的吞吐量基准测试：读取原图、按默认的三个宽度缩放、JPEG编码并写回本地对象存储，
+ * 每秒完成的次数即单线程每秒能处理的图片数，用 -t 指定线程数可以估算图片线程池的容量
+ * <p>
+ * 运行：java -jar sky-bench/target/benchmarks.jar ImageVariantBenchmark -t 2
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageVariantBenchmark {
+
+    /**
+     * 原图尺寸：手机拍摄的照片和常见的商品图
+     */
+    @Param({"4000x3000", "1200x900"})
+    public String size;
+
+    @Param({"jpg", "png"})
+    public String format;
+
+    private Path root;
+    private String objectName;
+    private ImageVariantGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("sky-bench-image");
+        LocalObjectStorage storage = new LocalObjectStorage(root.toString(), "http://localhost/files/");
+        generator = new ImageVariantGenerator(storage, new ImageProperties());
+
+        String[] dimensions = size.split("x");
+        byte[] bytes = sample(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), format);
+        objectName = "sample." + format;
+        storage.put(objectName, new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void generate() {
+        generator.generate(objectName);
+    }
+
+    /**
+     * 渐变加随机色块的图片，避免纯色图片被压缩得过小、解码过快
+     */
+    private static byte[] sample(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.DARK_GRAY));
+            graphics.fillRect(0, 0, width, height);
+            Random random = new Random(42);
+            for (int i = 0; i < 500; i++) {
+                graphics.setColor(new Color(random.nextInt(0xffffff)));
+                graphics.fillOval(random.nextInt(width), random.nextInt(height), width / 20, height / 20);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, format, outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,18 @@
+package com.sky.constant;
+
+/**
+ * 缓存相关常量
+ */
+public class CacheConstant {
+
+    /**
+     * 菜品缓存key前缀，完整key为 dish_分类id
+     */
+    public static final String DISH_KEY_PREFIX = "dish_";
+
+    /**
+     * 二级缓存名称
+     */
+    public static final String DISH_CACHE = "dish";
+
+}
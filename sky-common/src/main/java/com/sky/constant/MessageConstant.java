@@ -24,4 +24,12 @@ public class MessageConstant {
     public static final String ORDER_STATUS_ERROR = "订单状态错误";
     public static final String ORDER_NOT_FOUND = "订单不存在";
     public static final String ALREADY_EXISTS = "已存在" ;
+    public static final String CURSOR_INVALID = "分页游标无效";
+    public static final String UPLOAD_SESSION_NOT_FOUND = "上传任务不存在或已过期";
+    public static final String UPLOAD_PART_INVALID = "分片编号或大小不正确";
+    public static final String UPLOAD_PARTS_INCOMPLETE = "还有分片未上传";
+    public static final String UPLOAD_FILE_INVALID = "文件名或文件大小不正确";
+    public static final String UPLOAD_OBJECT_REMOVED = "文件长时间未使用已被清理，请重新上传";
+    public static final String SYSTEM_BUSY = "系统繁忙，请稍后再试";
+    public static final String LOGIN_TOO_FREQUENT = "登录尝试过于频繁，请稍后再试";
 }
@@ -1,20 +1,21 @@
 package com.sky.context;
 
+/**
+ * 当前操作人的便捷访问，数据保存在RequestContext中，会随任务传递到其他线程
+ */
 public class BaseContext {
 
-    // 通过ThreadLocal传递一个线程内共享的变量
-    public static ThreadLocal<Long> threadLocal = new ThreadLocal<>();
-
     public static void setCurrentId(Long id) {
-        threadLocal.set(id);
+        RequestContext.set(RequestContext.of(id));
     }
 
     public static Long getCurrentId() {
-        return threadLocal.get();
+        RequestContext context = RequestContext.current();
+        return context == null ? null : context.getCurrentId();
     }
 
     public static void removeCurrentId() {
-        threadLocal.remove();
+        RequestContext.clear();
     }
 
 }
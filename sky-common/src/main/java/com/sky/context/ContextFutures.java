@@ -0,0 +1,57 @@
+package com.sky.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 携带请求上下文的CompletableFuture工具，用于在请求中并行执行多个查询
+ */
+public class ContextFutures {
+
+    /**
+     * 异步执行任务，任务中可以读取当前请求的上下文
+     *
+     * @param task
+     * @param executor
+     * @return
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(RequestContext.wrap(task), executor);
+    }
+
+    /**
+     * 异步执行任务，任务中可以读取当前请求的上下文
+     *
+     * @param task
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return CompletableFuture.runAsync(RequestContext.wrap(task), executor);
+    }
+
+    /**
+     * 并行执行多个任务，全部完成后按提交顺序返回结果；任一任务失败时返回的future以该异常结束
+     *
+     * @param tasks
+     * @param executor
+     * @return
+     */
+    public static <T> CompletableFuture<List<T>> fanOut(List<Supplier<T>> tasks, Executor executor) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (Supplier<T> task : tasks) {
+            futures.add(supplyAsync(task, executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    List<T> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+    }
+}
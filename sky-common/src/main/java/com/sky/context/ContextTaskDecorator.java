@@ -0,0 +1,14 @@
+package com.sky.context;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 线程池的任务装饰器，把提交任务的线程的请求上下文传递到执行任务的线程
+ */
+public class ContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return RequestContext.wrap(runnable);
+    }
+}
@@ -0,0 +1,115 @@
+package com.sky.context;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * 请求上下文，保存当前请求的操作人等信息，不可变
+ * 由拦截器在请求开始时设置、在请求结束时清除；提交到线程池的任务通过capture/wrap把请求线程的上下文带到执行任务的线程，
+ * 任务结束后恢复执行线程原来的上下文，线程池、CompletableFuture和虚拟线程中都能读到发起请求的操作人
+ */
+public final class RequestContext {
+
+    private static final ThreadLocal<RequestContext> HOLDER = new ThreadLocal<>();
+
+    //当前操作人的id，员工端为员工id，用户端为用户id
+    private final Long currentId;
+
+    private RequestContext(Long currentId) {
+        this.currentId = currentId;
+    }
+
+    public static RequestContext of(Long currentId) {
+        return new RequestContext(currentId);
+    }
+
+    public Long getCurrentId() {
+        return currentId;
+    }
+
+    /**
+     * 获取当前线程的上下文
+     *
+     * @return 没有上下文时返回null
+     */
+    public static RequestContext current() {
+        return HOLDER.get();
+    }
+
+    /**
+     * 设置当前线程的上下文
+     *
+     * @param context 为null时清除
+     */
+    public static void set(RequestContext context) {
+        if (context == null) {
+            HOLDER.remove();
+        } else {
+            HOLDER.set(context);
+        }
+    }
+
+    /**
+     * 清除当前线程的上下文，请求结束时必须调用，避免线程复用时读到上一个请求的数据
+     */
+    public static void clear() {
+        HOLDER.remove();
+    }
+
+    /**
+     * 包装任务，执行时使用提交任务时的上下文
+     *
+     * @param task
+     * @return
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestContext captured = current();
+        return () -> {
+            RequestContext previous = current();
+            set(captured);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装任务，执行时使用提交任务时的上下文
+     *
+     * @param task
+     * @return
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        RequestContext captured = current();
+        return () -> {
+            RequestContext previous = current();
+            set(captured);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装任务，执行时使用提交任务时的上下文
+     *
+     * @param task
+     * @return
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        RequestContext captured = current();
+        return () -> {
+            RequestContext previous = current();
+            set(captured);
+            try {
+                return task.get();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+}
@@ -14,4 +14,11 @@ public class AliOssProperties {
     private String accessKeySecret;
     private String bucketName;
 
+    /**
+     * OSS客户端连接池的最大连接数，以及建立连接和读写的超时时间（毫秒）
+     */
+    private int maxConnections = 64;
+    private int connectionTimeout = 10000;
+    private int socketTimeout = 50000;
+
 }
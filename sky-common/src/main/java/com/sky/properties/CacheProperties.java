@@ -0,0 +1,37 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.cache")
+@Data
+public class CacheProperties {
+
+    /**
+     * 菜品缓存过期时间（分钟），写操作会在事务提交后主动清理，过期时间只作为兜底
+     */
+    private long dishTtl = 60;
+
+    /**
+     * 内存分类表与数据库定时比对的间隔（毫秒）
+     */
+    private long categoryReconcileInterval = 60000;
+
+    /**
+     * 每个二级缓存的本地缓存最大条目数
+     */
+    private int localMaxSize = 1000;
+
+    /**
+     * 本地缓存过期时间（秒），跨节点失效通知丢失时最多读到这么久的旧数据
+     */
+    private long localTtl = 30;
+
+    /**
+     * 员工身份信息缓存的过期时间（秒），变更通知丢失时，禁用的账号最多在这么久之后失效
+     */
+    private long employeePrincipalTtl = 60;
+
+}
@@ -0,0 +1,47 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.executor")
+@Data
+public class ExecutorProperties {
+
+    /**
+     * 文件上传等对象存储操作使用的线程池
+     */
+    private Pool upload = new Pool(4, 8, 100, 60000);
+
+    /**
+     * 图片缩略图生成使用的线程池，解码和缩放占用CPU，线程数不宜超过核数
+     */
+    private Pool image = new Pool(2, 2, 100, 0);
+
+    @Data
+    public static class Pool {
+
+        //核心线程数
+        private int coreSize;
+
+        //最大线程数
+        private int maxSize;
+
+        //队列容量，队列满且线程数达到最大时拒绝新任务
+        private int queueCapacity;
+
+        //任务超时时间（毫秒），超时后接口直接返回失败
+        private long timeout;
+
+        public Pool() {
+        }
+
+        public Pool(int coreSize, int maxSize, int queueCapacity, long timeout) {
+            this.coreSize = coreSize;
+            this.maxSize = maxSize;
+            this.queueCapacity = queueCapacity;
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "sky.image")
+@Data
+public class ImageProperties {
+
+    /**
+     * 缩略图的宽度（像素），高度按原图比例计算；原图比该宽度窄时不放大，只重新压缩
+     */
+    private List<Integer> widths = Arrays.asList(120, 360, 720);
+
+    /**
+     * 缩略图的JPEG压缩质量，0~1
+     */
+    private float quality = 0.8f;
+
+    /**
+     * 允许处理的最大像素数（宽乘高），解码前按文件头中的尺寸检查，超过的图片直接标记为失败
+     * 解码后每个像素占4字节，默认值约占160MB内存
+     */
+    private long maxPixels = 40000000;
+
+    /**
+     * 每个任务最多尝试的次数，超过后标记为失败
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 处理中的任务超过这个时间（毫秒）没有完成，视为处理它的节点已经停止，重新放回队列
+     */
+    private long staleTimeout = 600000;
+
+    /**
+     * 扫描队列的间隔（毫秒）
+     */
+    private long pollInterval = 10000;
+
+}
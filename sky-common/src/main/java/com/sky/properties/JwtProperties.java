@@ -17,6 +17,18 @@ public class JwtProperties {
     private long adminTtl;
     private String adminTokenName;
 
+    /**
+     * 管理端已验证令牌缓存的最大条目数
+     */
+    private int adminVerifiedCacheSize = 10000;
+
+    /**
+     * 已吊销令牌布隆过滤器的预计容量和误判率，以及从redis重建的间隔（毫秒）
+     */
+    private long revocationExpectedInsertions = 100000;
+    private double revocationFpp = 0.001;
+    private long revocationRebuildInterval = 600000;
+
     /**
      * 用户端微信用户生成jwt令牌相关配置
      */
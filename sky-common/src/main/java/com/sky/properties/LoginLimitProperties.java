@@ -0,0 +1,42 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.login-limit")
+@Data
+public class LoginLimitProperties {
+
+    /**
+     * 限流模式：local 只在本节点限流；redis 在本节点限流之后再经过redis共享的令牌桶，多个节点合计不超过限制
+     */
+    private String mode = "local";
+
+    /**
+     * 同一IP上同一用户名的令牌桶容量（允许的连续尝试次数）和每补充一个令牌的间隔（毫秒）
+     * 按用户名和IP一起计数，其他客户端的错误尝试不会把这个账号锁住
+     */
+    private int usernameBurst = 5;
+    private long usernameInterval = 12000;
+
+    /**
+     * 同一用户名在所有IP上合计的令牌桶容量和每补充一个令牌的间隔（毫秒），用于限制多个IP对同一账号的撞库
+     * 补充速度要快于单个IP上同一用户名的速度，单个客户端的尝试无法耗尽这个限额把账号锁住
+     */
+    private int accountBurst = 30;
+    private long accountInterval = 2000;
+
+    /**
+     * 同一客户端IP的令牌桶容量和每补充一个令牌的间隔（毫秒）
+     */
+    private int ipBurst = 20;
+    private long ipInterval = 3000;
+
+    /**
+     * 本地令牌桶同时保存的键的上限，达到上限时先清理已经回满的桶，仍然没有空间时拒绝新的键
+     */
+    private int maxKeys = 100000;
+
+}
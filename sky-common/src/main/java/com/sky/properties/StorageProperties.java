@@ -0,0 +1,27 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.storage")
+@Data
+public class StorageProperties {
+
+    /**
+     * 对象存储的实现：oss 阿里云OSS（需要配置sky.alioss），local 本地文件系统
+     */
+    private String type = "oss";
+
+    /**
+     * 本地存储的根目录
+     */
+    private String localDir = "./storage";
+
+    /**
+     * 本地存储的访问路径前缀，文件访问路径为 前缀 + 对象名称
+     */
+    private String localUrlPrefix = "http://localhost:8080/files/";
+
+}
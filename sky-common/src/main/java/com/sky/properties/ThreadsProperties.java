@@ -0,0 +1,29 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.threads")
+@Data
+public class ThreadsProperties {
+
+    /**
+     * 是否用虚拟线程处理tomcat请求和@Async任务，需要运行在JDK 21及以上，低版本JDK上忽略该配置
+     */
+    private boolean virtual = false;
+
+    /**
+     * 虚拟线程被固定在载体线程上（在synchronized块中阻塞）时打印的堆栈：short、full，为空时不打印
+     */
+    private String tracePinned = "short";
+
+    /**
+     * 虚拟线程模式下获取数据库连接的最长等待时间（毫秒）
+     * 连接池是虚拟线程模式下并发的真正上限，等待超时的请求直接失败而不是无限排队；
+     * 只在没有配置 spring.datasource.druid.max-wait 时生效，平台线程模式下不修改连接池
+     */
+    private long connectionMaxWait = 3000;
+
+}
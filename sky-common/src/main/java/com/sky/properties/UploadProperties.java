@@ -0,0 +1,32 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.upload")
+@Data
+public class UploadProperties {
+
+    /**
+     * 分片上传的分片大小（字节），除最后一片外每片都是这个大小，OSS要求不小于100KB
+     */
+    private long partSize = 5 * 1024 * 1024;
+
+    /**
+     * 分片上传允许的最大文件大小（字节）
+     */
+    private long maxFileSize = 2L * 1024 * 1024 * 1024;
+
+    /**
+     * 未完成的分片上传任务保留的时间（小时），超时后不能再续传
+     */
+    private long sessionTtl = 24;
+
+    /**
+     * 上传后或最后一次引用解除后，文件至少保留的时间（小时），之后仍然没有引用才会被清理
+     */
+    private long gcGracePeriod = 72;
+
+}
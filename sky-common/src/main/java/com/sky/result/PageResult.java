@@ -9,6 +9,7 @@ import java.util.List;
 
 /**
  * 封装分页查询结果
+ * 游标分页且未要求统计总数时，total为-1
  */
 @Data
 @AllArgsConstructor
@@ -19,4 +20,11 @@ public class PageResult implements Serializable {
 
     private List records; //当前页数据集合
 
+    private String nextCursor; //游标分页时下一页的游标，没有更多数据时为null
+
+    public PageResult(long total, List records) {
+        this.total = total;
+        this.records = records;
+    }
+
 }
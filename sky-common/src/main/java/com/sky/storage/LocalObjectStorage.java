@@ -0,0 +1,228 @@
+package com.sky.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * 对象存储的本地文件系统实现，用于私有化部署以及不能访问云存储的压测环境
+ * 写入通过FileChannel完成：先写到临时文件，再原子地移动到目标位置，读者不会看到写了一半的文件；
+ * 分片保存在根目录下的 .multipart/上传id/ 中，合并时用transferTo在文件之间直接拷贝，不经过用户态缓冲区
+ */
+@Slf4j
+public class LocalObjectStorage implements ObjectStorage {
+
+    private static final String MULTIPART_DIR = ".multipart";
+    private static final String TEMP_DIR = ".tmp";
+
+    private final Path root;
+    private final String urlPrefix;
+
+    public LocalObjectStorage(String rootDir, String urlPrefix) {
+        this.root = Paths.get(rootDir).toAbsolutePath().normalize();
+        this.urlPrefix = urlPrefix.endsWith("/") ? urlPrefix : urlPrefix + "/";
+        try {
+            Files.createDirectories(root.resolve(TEMP_DIR));
+            Files.createDirectories(root.resolve(MULTIPART_DIR));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("本地对象存储目录：{}", root);
+    }
+
+    public String put(String objectName, InputStream inputStream, long contentLength) {
+        Path target = resolve(objectName);
+        try {
+            write(inputStream, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String url = getUrl(objectName);
+        log.info("文件保存到:{}", url);
+        return url;
+    }
+
+    public InputStream get(String objectName) {
+        try {
+            return Files.newInputStream(resolve(objectName));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean exists(String objectName) {
+        return Files.isRegularFile(resolve(objectName));
+    }
+
+    public void delete(String objectName) {
+        try {
+            Files.deleteIfExists(resolve(objectName));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getUrl(String objectName) {
+        return urlPrefix + objectName;
+    }
+
+    public String initiateMultipart(String objectName) {
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        try {
+            Files.createDirectories(root.resolve(MULTIPART_DIR).resolve(uploadId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return uploadId;
+    }
+
+    public String uploadPart(String objectName, String uploadId, int partNumber, InputStream inputStream, long size) {
+        Path part = multipartDir(uploadId).resolve(String.valueOf(partNumber));
+        try {
+            //分片的ETag取内容的MD5，与OSS一致
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            write(new DigestInputStream(inputStream, md5), part);
+            return toHex(md5.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String completeMultipart(String objectName, String uploadId, Map<Integer, String> partETags) {
+        Path dir = multipartDir(uploadId);
+        Path temp = tempFile();
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Integer partNumber : new TreeMap<>(partETags).keySet()) {
+                    try (FileChannel in = FileChannel.open(dir.resolve(String.valueOf(partNumber)), StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = in.size();
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+                out.force(false);
+            }
+            moveInto(temp, resolve(objectName));
+            deleteDirectory(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("删除临时文件失败：{}", temp);
+            }
+        }
+        String url = getUrl(objectName);
+        log.info("分片上传完成:{}", url);
+        return url;
+    }
+
+    public void abortMultipart(String objectName, String uploadId) {
+        try {
+            deleteDirectory(multipartDir(uploadId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 对象对应的文件路径，拒绝跳出根目录的对象名称
+     *
+     * @param objectName
+     * @return
+     */
+    public Path resolve(String objectName) {
+        Path path = root.resolve(objectName).normalize();
+        if (!path.startsWith(root) || path.equals(root) || path.startsWith(root.resolve(MULTIPART_DIR))
+                || path.startsWith(root.resolve(TEMP_DIR))) {
+            throw new IllegalArgumentException("非法的对象名称：" + objectName);
+        }
+        return path;
+    }
+
+    private Path multipartDir(String uploadId) {
+        Path dir = root.resolve(MULTIPART_DIR).resolve(uploadId).normalize();
+        if (!dir.getParent().equals(root.resolve(MULTIPART_DIR))) {
+            throw new IllegalArgumentException("非法的上传id：" + uploadId);
+        }
+        return dir;
+    }
+
+    /**
+     * 用FileChannel把流写入临时文件，再原子地移动到目标位置
+     */
+    private void write(InputStream inputStream, Path target) throws IOException {
+        Path temp = tempFile();
+        try {
+            try (ReadableByteChannel in = Channels.newChannel(inputStream);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                long transferred;
+                //transferFrom在读到流末尾时返回0
+                while ((transferred = out.transferFrom(in, position, 1024 * 1024)) > 0) {
+                    position += transferred;
+                }
+                out.force(false);
+            }
+            moveInto(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path tempFile() {
+        return root.resolve(TEMP_DIR).resolve(UUID.randomUUID().toString());
+    }
+
+    private void moveInto(Path temp, Path target) throws IOException {
+        Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sky.storage;
+
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * 支持分片上传的存储
+ * 一个大文件先初始化得到存储端的上传id，再分别上传各个分片（可以并行、可以乱序），最后按分片编号合并成一个对象
+ */
+public interface MultipartStorage {
+
+    /**
+     * 初始化分片上传
+     *
+     * @param objectName 合并后的对象名称
+     * @return 存储端的上传id
+     */
+    String initiateMultipart(String objectName);
+
+    /**
+     * 上传一个分片
+     *
+     * @param objectName
+     * @param uploadId    存储端的上传id
+     * @param partNumber  分片编号，从1开始
+     * @param inputStream 分片内容，由调用方关闭
+     * @param size        分片大小
+     * @return 分片的ETag，合并时使用
+     */
+    String uploadPart(String objectName, String uploadId, int partNumber, InputStream inputStream, long size);
+
+    /**
+     * 按分片编号合并所有分片
+     *
+     * @param objectName
+     * @param uploadId
+     * @param partETags 分片编号 -> ETag
+     * @return 文件访问路径
+     */
+    String completeMultipart(String objectName, String uploadId, Map<Integer, String> partETags);
+
+    /**
+     * 取消分片上传，删除已上传的分片
+     *
+     * @param objectName
+     * @param uploadId
+     */
+    void abortMultipart(String objectName, String uploadId);
+}
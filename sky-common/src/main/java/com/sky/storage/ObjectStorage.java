@@ -0,0 +1,65 @@
+package com.sky.storage;
+
+import java.io.InputStream;
+
+/**
+ * 对象存储，上传的图片、视频等文件都通过它保存
+ * 具体实现由配置 sky.storage.type 决定：oss 为阿里云OSS，local 为本地文件系统
+ */
+public interface ObjectStorage extends MultipartStorage {
+
+    /**
+     * 以流的方式保存对象，数据边读边写，不在内存中缓存整个文件
+     *
+     * @param objectName
+     * @param inputStream   对象内容，由调用方关闭
+     * @param contentLength 内容长度，未知时传-1
+     * @return 文件访问路径
+     */
+    String put(String objectName, InputStream inputStream, long contentLength);
+
+    /**
+     * 读取对象
+     *
+     * @param objectName
+     * @return 对象内容，由调用方关闭
+     */
+    InputStream get(String objectName);
+
+    /**
+     * 对象是否存在
+     *
+     * @param objectName
+     * @return
+     */
+    boolean exists(String objectName);
+
+    /**
+     * 删除对象，对象不存在时不做任何事
+     *
+     * @param objectName
+     */
+    void delete(String objectName);
+
+    /**
+     * 对象的访问路径
+     *
+     * @param objectName
+     * @return
+     */
+    String getUrl(String objectName);
+
+    /**
+     * 访问路径对应的对象名称，是getUrl的逆运算
+     *
+     * @param url
+     * @return 不是这个存储的访问路径时返回null
+     */
+    default String getObjectName(String url) {
+        String prefix = getUrl("");
+        if (url == null || url.length() <= prefix.length() || !url.startsWith(prefix)) {
+            return null;
+        }
+        return url.substring(prefix.length());
+    }
+}
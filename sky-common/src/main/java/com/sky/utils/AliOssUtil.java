@@ -1,23 +1,56 @@
 package com.sky.utils;
 
+import com.aliyun.oss.ClientBuilderConfiguration;
 import com.aliyun.oss.ClientException;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
 import com.aliyun.oss.OSSException;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.sky.storage.ObjectStorage;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
-@Data
-@AllArgsConstructor
+/**
+ * 阿里云OSS工具类，对象存储的OSS实现
+ * 持有一个长期存活的OSSClient，连接池和TLS连接在多次上传之间复用，OSSClient是线程安全的；
+ * 容器关闭时调用shutdown释放连接
+ */
+@Getter
 @Slf4j
-public class AliOssUtil {
+public class AliOssUtil implements ObjectStorage {
+
+    private final String endpoint;
+    private final String accessKeyId;
+    private final String accessKeySecret;
+    private final String bucketName;
+
+    private final OSS ossClient;
 
-    private String endpoint;
-    private String accessKeyId;
-    private String accessKeySecret;
-    private String bucketName;
+    public AliOssUtil(String endpoint, String accessKeyId, String accessKeySecret, String bucketName) {
+        this(endpoint, accessKeyId, accessKeySecret, bucketName, new ClientBuilderConfiguration());
+    }
+
+    public AliOssUtil(String endpoint, String accessKeyId, String accessKeySecret, String bucketName,
+                      ClientBuilderConfiguration configuration) {
+        this.endpoint = endpoint;
+        this.accessKeyId = accessKeyId;
+        this.accessKeySecret = accessKeySecret;
+        this.bucketName = bucketName;
+        // 创建OSSClient实例，整个应用共享
+        this.ossClient = new OSSClientBuilder().build(endpoint, accessKeyId, accessKeySecret, configuration);
+    }
 
     /**
      * 文件上传
@@ -27,32 +60,148 @@ public class AliOssUtil {
      * @return
      */
     public String upload(byte[] bytes, String objectName) {
+        return upload(new ByteArrayInputStream(bytes), bytes.length, objectName);
+    }
 
-        // 创建OSSClient实例。
-        OSS ossClient = new OSSClientBuilder().build(endpoint, accessKeyId, accessKeySecret);
-
+    /**
+     * 以流的方式上传文件，数据边读边发送，不在内存中缓存整个文件
+     *
+     * @param inputStream   文件内容，由调用方关闭
+     * @param contentLength 文件长度，未知时传-1（会使用分块传输编码）
+     * @param objectName
+     * @return 文件访问路径
+     */
+    public String upload(InputStream inputStream, long contentLength, String objectName) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentLength >= 0) {
+            // 设置长度后SDK直接按长度发送，不需要先把流读进内存
+            metadata.setContentLength(contentLength);
+        }
         try {
             // 创建PutObject请求。
-            ossClient.putObject(bucketName, objectName, new ByteArrayInputStream(bytes));
+            ossClient.putObject(bucketName, objectName, inputStream, metadata);
         } catch (OSSException oe) {
-            System.out.println("Caught an OSSException, which means your request made it to OSS, "
-                    + "but was rejected with an error response for some reason.");
-            System.out.println("Error Message:" + oe.getErrorMessage());
-            System.out.println("Error Code:" + oe.getErrorCode());
-            System.out.println("Request ID:" + oe.getRequestId());
-            System.out.println("Host ID:" + oe.getHostId());
+            log.error("OSS拒绝了上传请求，Error Message:{}, Error Code:{}, Request ID:{}, Host ID:{}",
+                    oe.getErrorMessage(), oe.getErrorCode(), oe.getRequestId(), oe.getHostId());
+            throw oe;
         } catch (ClientException ce) {
-            System.out.println("Caught an ClientException, which means the client encountered "
-                    + "a serious internal problem while trying to communicate with OSS, "
-                    + "such as not being able to access the network.");
-            System.out.println("Error Message:" + ce.getMessage());
-        } finally {
-            if (ossClient != null) {
-                ossClient.shutdown();
-            }
+            log.error("OSS客户端异常，可能无法访问网络，Error Message:{}", ce.getMessage());
+            throw ce;
         }
 
-        //文件访问路径规则 https://BucketName.Endpoint/ObjectName
+        String url = getUrl(objectName);
+        log.info("文件上传到:{}", url);
+        return url;
+    }
+
+    /**
+     * 以流的方式保存对象
+     *
+     * @param objectName
+     * @param inputStream
+     * @param contentLength
+     * @return
+     */
+    public String put(String objectName, InputStream inputStream, long contentLength) {
+        return upload(inputStream, contentLength, objectName);
+    }
+
+    /**
+     * 读取对象
+     *
+     * @param objectName
+     * @return
+     */
+    public InputStream get(String objectName) {
+        return ossClient.getObject(bucketName, objectName).getObjectContent();
+    }
+
+    /**
+     * 对象是否存在
+     *
+     * @param objectName
+     * @return
+     */
+    public boolean exists(String objectName) {
+        return ossClient.doesObjectExist(bucketName, objectName);
+    }
+
+    /**
+     * 删除对象
+     *
+     * @param objectName
+     */
+    public void delete(String objectName) {
+        ossClient.deleteObject(bucketName, objectName);
+    }
+
+    /**
+     * 初始化分片上传
+     *
+     * @param objectName
+     * @return
+     */
+    public String initiateMultipart(String objectName) {
+        return ossClient.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, objectName)).getUploadId();
+    }
+
+    /**
+     * 上传一个分片
+     *
+     * @param objectName
+     * @param uploadId
+     * @param partNumber
+     * @param inputStream
+     * @param size
+     * @return
+     */
+    public String uploadPart(String objectName, String uploadId, int partNumber, InputStream inputStream, long size) {
+        UploadPartRequest request = new UploadPartRequest();
+        request.setBucketName(bucketName);
+        request.setKey(objectName);
+        request.setUploadId(uploadId);
+        request.setPartNumber(partNumber);
+        request.setInputStream(inputStream);
+        request.setPartSize(size);
+        return ossClient.uploadPart(request).getETag();
+    }
+
+    /**
+     * 合并分片
+     *
+     * @param objectName
+     * @param uploadId
+     * @param partETags
+     * @return
+     */
+    public String completeMultipart(String objectName, String uploadId, Map<Integer, String> partETags) {
+        List<PartETag> parts = new ArrayList<>(partETags.size());
+        for (Map.Entry<Integer, String> entry : new TreeMap<>(partETags).entrySet()) {
+            parts.add(new PartETag(entry.getKey(), entry.getValue()));
+        }
+        ossClient.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, objectName, uploadId, parts));
+        String url = getUrl(objectName);
+        log.info("分片上传完成:{}", url);
+        return url;
+    }
+
+    /**
+     * 取消分片上传
+     *
+     * @param objectName
+     * @param uploadId
+     */
+    public void abortMultipart(String objectName, String uploadId) {
+        ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, uploadId));
+    }
+
+    /**
+     * 文件访问路径规则 https://BucketName.Endpoint/ObjectName
+     *
+     * @param objectName
+     * @return
+     */
+    public String getUrl(String objectName) {
         StringBuilder stringBuilder = new StringBuilder("https://");
         stringBuilder
                 .append(bucketName)
@@ -60,9 +209,13 @@ public class AliOssUtil {
                 .append(endpoint)
                 .append("/")
                 .append(objectName);
-
-        log.info("文件上传到:{}", stringBuilder.toString());
-
         return stringBuilder.toString();
     }
+
+    /**
+     * 关闭OSSClient，释放连接池
+     */
+    public void shutdown() {
+        ossClient.shutdown();
+    }
 }
@@ -0,0 +1,106 @@
+package com.sky.utils;
+
+import com.sky.constant.MessageConstant;
+import com.sky.exception.BaseException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页工具类
+ * 游标是对上一页最后一条记录排序字段的编码，对前端来说是不透明的字符串，原样带回即可
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = ",";
+
+    //未传每页记录数时的默认值和允许的最大值
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * 校正每页记录数：未传或不是正数时使用默认值，超过上限时取上限
+     *
+     * @param pageSize
+     * @return
+     */
+    public static int pageSize(int pageSize) {
+        if (pageSize <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 将排序字段编码为游标
+     *
+     * @param values 排序字段的值，按排序顺序传入；为null的值编码为空字符串
+     * @return
+     */
+    public static String encode(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            if (values[i] != null) {
+                sb.append(values[i]);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 将游标解码为排序字段
+     *
+     * @param cursor 游标
+     * @param size   排序字段个数
+     * @return
+     */
+    public static String[] decode(String cursor, int size) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = raw.split(SEPARATOR, -1);
+            if (values.length == size) {
+                return values;
+            }
+        } catch (IllegalArgumentException e) {
+            //非法的base64字符串，统一按无效游标处理
+        }
+        throw new BaseException(MessageConstant.CURSOR_INVALID);
+    }
+
+    /**
+     * 解析游标中的时间字段
+     *
+     * @param value
+     * @return 上一页最后一条记录的时间为null时返回null
+     */
+    public static LocalDateTime parseTime(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BaseException(MessageConstant.CURSOR_INVALID);
+        }
+    }
+
+    /**
+     * 解析游标中的整数字段
+     *
+     * @param value
+     * @return
+     */
+    public static Long parseLong(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BaseException(MessageConstant.CURSOR_INVALID);
+        }
+    }
+}
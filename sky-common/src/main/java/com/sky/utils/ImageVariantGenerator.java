@@ -0,0 +1,138 @@
+package com.sky.utils;
+
+import com.sky.properties.ImageProperties;
+import com.sky.storage.ObjectStorage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * 读取原图并按配置的宽度生成缩略图，写回同一个对象存储
+ * 不依赖spring容器，缩略图任务和基准测试使用同一份实现
+ */
+public class ImageVariantGenerator {
+
+    private final ObjectStorage objectStorage;
+    private final ImageProperties imageProperties;
+
+    public ImageVariantGenerator(ObjectStorage objectStorage, ImageProperties imageProperties) {
+        this.objectStorage = objectStorage;
+        this.imageProperties = imageProperties;
+    }
+
+    /**
+     * 生成所有宽度的缩略图，比原图宽的尺寸不放大，只重新压缩
+     * 缩略图以固定的名称覆盖写入，重复处理同一张图片不会产生多余的对象
+     *
+     * @param objectName 原图的对象名称
+     * @throws IllegalArgumentException 无法识别的格式或像素数超过上限，重试也不会成功
+     */
+    public void generate(String objectName) {
+        BufferedImage original = read(objectName);
+        for (Integer width : imageProperties.getWidths()) {
+            BufferedImage scaled = scale(original, Math.min(width, original.getWidth()));
+            byte[] bytes = encodeJpeg(scaled, imageProperties.getQuality());
+            objectStorage.put(ImageVariantUtil.variant(objectName, width), new ByteArrayInputStream(bytes), bytes.length);
+        }
+    }
+
+    /**
+     * 解码原图，解码前先从文件头读取尺寸，像素数超过上限时直接拒绝，不为它分配图片内存
+     *
+     * @param objectName
+     * @return
+     */
+    private BufferedImage read(String objectName) {
+        try (InputStream inputStream = objectStorage.get(objectName);
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = imageInputStream == null
+                    ? null : ImageIO.getImageReaders(imageInputStream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("无法识别的图片格式：" + objectName);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > imageProperties.getMaxPixels()) {
+                    throw new IllegalArgumentException("图片尺寸过大：" + objectName + "，" + width + "x" + height);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 按宽度等比缩放，每次最多缩小一半，避免一次大比例缩小时双线性插值丢失细节
+     * 结果为不带透明通道的RGB图片，透明部分填充白色
+     *
+     * @param source
+     * @param width
+     * @return
+     */
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, currentWidth, currentHeight);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IllegalStateException("没有可用的JPEG编码器");
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+}
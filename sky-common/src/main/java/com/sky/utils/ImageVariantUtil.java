@@ -0,0 +1,65 @@
+package com.sky.utils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图片缩略图的命名规则：原图 a/b/name.png 的宽度为360的缩略图为 a/b/name_w360.jpg
+ * 对象名称和访问路径使用同样的规则，前端可以按需要的尺寸直接拼出地址
+ */
+public class ImageVariantUtil {
+
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".bmp"};
+
+    /**
+     * 是否为可以生成缩略图的图片
+     *
+     * @param name 对象名称或访问路径
+     * @return
+     */
+    public static boolean isImage(String name) {
+        if (name == null) {
+            return false;
+        }
+        String lower = name.toLowerCase();
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指定宽度的缩略图的对象名称或访问路径
+     *
+     * @param name  原图的对象名称或访问路径
+     * @param width
+     * @return
+     */
+    public static String variant(String name, int width) {
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        String base = dot > slash ? name.substring(0, dot) : name;
+        return base + "_w" + width + ".jpg";
+    }
+
+    /**
+     * 原图所有尺寸的缩略图访问路径
+     *
+     * @param url    原图访问路径
+     * @param widths
+     * @return 键为 w宽度，不是图片时返回null
+     */
+    public static Map<String, String> variants(String url, List<Integer> widths) {
+        if (!isImage(url)) {
+            return null;
+        }
+        Map<String, String> variants = new LinkedHashMap<>();
+        for (Integer width : widths) {
+            variants.put("w" + width, variant(url, width));
+        }
+        return variants;
+    }
+}
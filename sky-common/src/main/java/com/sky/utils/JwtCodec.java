@@ -0,0 +1,231 @@
+package com.sky.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sky.constant.JwtClaimsConstant;
+import com.sky.properties.JwtProperties;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * JWT令牌的签发与验证
+ * 管理端和用户端使用各自的密钥，密钥只在创建时根据配置构建一次，未配置密钥时启动失败；
+ * 验证时直接计算HMAC-SHA256并用流式解析读取需要的声明，不构建Claims对象，线程安全
+ */
+@Component
+public class JwtCodec {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    //每套密钥缓存的Mac实例上限，超过的并发验证临时复制后丢弃
+    private static final int MAC_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final Channel admin;
+    private final Channel user;
+
+    public JwtCodec(JwtProperties jwtProperties) {
+        this.admin = new Channel("管理端", jwtProperties.getAdminSecretKey(), jwtProperties.getAdminTtl(), JwtClaimsConstant.EMP_ID);
+        this.user = new Channel("用户端", jwtProperties.getUserSecretKey(), jwtProperties.getUserTtl(), JwtClaimsConstant.USER_ID);
+    }
+
+    /**
+     * 签发管理端令牌
+     *
+     * @param claims 私有声明，需要包含员工id
+     * @return
+     */
+    public String createAdminToken(Map<String, Object> claims) {
+        return admin.create(claims);
+    }
+
+    /**
+     * 签发用户端令牌
+     *
+     * @param claims 私有声明，需要包含用户id
+     * @return
+     */
+    public String createUserToken(Map<String, Object> claims) {
+        return user.create(claims);
+    }
+
+    /**
+     * 验证管理端令牌
+     *
+     * @param token
+     * @return 员工id和过期时间
+     * @throws io.jsonwebtoken.JwtException 令牌格式错误、签名不正确或已过期
+     */
+    public JwtPrincipal verifyAdmin(String token) {
+        return admin.verify(token);
+    }
+
+    /**
+     * 验证用户端令牌
+     *
+     * @param token
+     * @return 用户id和过期时间
+     * @throws io.jsonwebtoken.JwtException 令牌格式错误、签名不正确或已过期
+     */
+    public JwtPrincipal verifyUser(String token) {
+        return user.verify(token);
+    }
+
+    /**
+     * 一套密钥、有效期和身份声明
+     */
+    private static class Channel {
+
+        private final SecretKeySpec key;
+        private final long ttlMillis;
+        private final String idClaim;
+
+        //已用密钥初始化的Mac，其他实例都从它复制，不再重复初始化密钥
+        private final Mac prototype;
+
+        //Mac不是线程安全的，用完放回池中复用；不按线程保存，虚拟线程下每个请求都是新线程
+        private final BlockingQueue<Mac> macPool = new ArrayBlockingQueue<>(MAC_POOL_SIZE);
+
+        private Channel(String name, String secretKey, long ttlMillis, String idClaim) {
+            if (secretKey == null || secretKey.isEmpty()) {
+                throw new IllegalStateException("未配置" + name + "的jwt密钥");
+            }
+            this.key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+            this.ttlMillis = ttlMillis;
+            this.idClaim = idClaim;
+            try {
+                this.prototype = Mac.getInstance(HMAC_SHA256);
+                this.prototype.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Mac borrowMac() {
+            Mac m = macPool.poll();
+            if (m != null) {
+                return m;
+            }
+            try {
+                synchronized (prototype) {
+                    return (Mac) prototype.clone();
+                }
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private String create(Map<String, Object> claims) {
+            long nowMillis = System.currentTimeMillis();
+            return Jwts.builder()
+                    // 设置自定义声明。此方法会覆盖所有已有声明，必须最先调用。
+                    .setClaims(claims)
+                    // 令牌id，退出登录时按它吊销令牌
+                    .setId(UUID.randomUUID().toString().replace("-", ""))
+                    .setIssuedAt(new Date(nowMillis))
+                    .setExpiration(new Date(nowMillis + ttlMillis))
+                    .signWith(SignatureAlgorithm.HS256, key)
+                    .compact();
+        }
+
+        private JwtPrincipal verify(String token) {
+            if (token == null) {
+                throw new MalformedJwtException("令牌为空");
+            }
+            int first = token.indexOf('.');
+            int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+            if (first <= 0 || second < 0 || token.indexOf('.', second + 1) >= 0) {
+                throw new MalformedJwtException("令牌格式错误");
+            }
+
+            //1、验证签名：对 header.payload 计算HMAC，与令牌中的签名做定长比较
+            byte[] signature;
+            try {
+                signature = Base64.getUrlDecoder().decode(token.substring(second + 1));
+            } catch (IllegalArgumentException e) {
+                throw new MalformedJwtException("令牌签名编码错误");
+            }
+            Mac m = borrowMac();
+            byte[] expected = m.doFinal(token.substring(0, second).getBytes(StandardCharsets.US_ASCII));
+            //doFinal之后Mac已重置，可以直接复用；池满时丢弃
+            macPool.offer(m);
+            if (!MessageDigest.isEqual(expected, signature)) {
+                throw new SignatureException("令牌签名不正确");
+            }
+
+            //2、读取载荷中的过期时间和身份声明
+            byte[] payload;
+            try {
+                payload = Base64.getUrlDecoder().decode(token.substring(first + 1, second));
+            } catch (IllegalArgumentException e) {
+                throw new MalformedJwtException("令牌载荷编码错误");
+            }
+            Long id = null;
+            Long exp = null;
+            Long nbf = null;
+            String jti = null;
+            try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new MalformedJwtException("令牌载荷格式错误");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if ("exp".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                        exp = parser.getLongValue();
+                    } else if ("nbf".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                        nbf = parser.getLongValue();
+                    } else if ("jti".equals(field) && value == JsonToken.VALUE_STRING) {
+                        jti = parser.getText();
+                    } else if (idClaim.equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                        id = parser.getLongValue();
+                    } else if (idClaim.equals(field) && value == JsonToken.VALUE_STRING) {
+                        id = Long.valueOf(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                throw new MalformedJwtException("令牌载荷格式错误", e);
+            }
+            if (id == null || exp == null) {
+                throw new MalformedJwtException("令牌缺少必要的声明");
+            }
+
+            //3、检查是否过期和是否已生效，exp和nbf的单位是秒
+            long now = System.currentTimeMillis();
+            long expiresAt = exp * 1000;
+            if (expiresAt <= now) {
+                throw new ExpiredJwtException(null, null, "令牌已过期");
+            }
+            if (nbf != null && nbf * 1000 > now) {
+                throw new PrematureJwtException(null, null, "令牌尚未生效");
+            }
+            //没有jti的旧令牌用签名部分作为令牌id，签名对每个令牌都是唯一的
+            if (jti == null) {
+                jti = token.substring(second + 1);
+            }
+            return new JwtPrincipal(id, jti, expiresAt);
+        }
+    }
+}
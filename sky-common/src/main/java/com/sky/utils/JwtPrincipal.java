@@ -0,0 +1,39 @@
+package com.sky.utils;
+
+/**
+ * 令牌验证通过后得到的身份信息，不可变
+ */
+public final class JwtPrincipal {
+
+    //员工id或用户id
+    private final long id;
+
+    //令牌id，用于吊销令牌
+    private final String tokenId;
+
+    //过期时间（毫秒时间戳）
+    private final long expiresAt;
+
+    public JwtPrincipal(long id, String tokenId, long expiresAt) {
+        this.id = id;
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtPrincipal(id=" + id + ", tokenId=" + tokenId + ", expiresAt=" + expiresAt + ")";
+    }
+}
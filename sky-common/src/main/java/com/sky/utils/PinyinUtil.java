@@ -0,0 +1,73 @@
+package com.sky.utils;
+
+import java.nio.charset.Charset;
+
+/**
+ * 拼音工具类，用于获取汉字的拼音首字母
+ * 基于GB2312一级汉字按拼音排序的特点，根据编码区间判断首字母，不依赖第三方拼音库；
+ * 二级汉字（生僻字）不在区间内，会被忽略
+ */
+public class PinyinUtil {
+
+    private static final Charset GB2312 = Charset.forName("GB2312");
+
+    //各首字母在GB2312中的起始编码，最后一个为一级汉字的结束编码
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE,
+            0xBBF7, 0xBFA6, 0xC0AC, 0xC2E8, 0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA,
+            0xC8BB, 0xC8F6, 0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1, 0xD7FA
+    };
+
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+
+    /**
+     * 获取字符串的拼音首字母（小写），字母和数字原样保留（转小写），其他字符忽略
+     * 例如 "宫保鸡丁" -> "gbjd"
+     *
+     * @param text
+     * @return
+     */
+    public static String initials(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128) {
+                if (Character.isLetterOrDigit(c)) {
+                    sb.append(Character.toLowerCase(c));
+                }
+                continue;
+            }
+            char letter = initial(c);
+            if (letter != 0) {
+                sb.append(letter);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 获取单个汉字的拼音首字母，无法识别时返回0
+     *
+     * @param c
+     * @return
+     */
+    private static char initial(char c) {
+        byte[] bytes = String.valueOf(c).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return 0;
+        }
+        int code = ((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF);
+        if (code < BOUNDARIES[0] || code >= BOUNDARIES[BOUNDARIES.length - 1]) {
+            return 0;
+        }
+        for (int i = LETTERS.length - 1; i >= 0; i--) {
+            if (code >= BOUNDARIES[i]) {
+                return LETTERS[i];
+            }
+        }
+        return 0;
+    }
+}
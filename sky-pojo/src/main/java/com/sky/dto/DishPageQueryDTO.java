@@ -3,6 +3,8 @@ package com.sky.dto;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class DishPageQueryDTO implements Serializable {
@@ -19,4 +21,21 @@ public class DishPageQueryDTO implements Serializable {
     //状态 0表示禁用 1表示启用
     private Integer status;
 
+    //游标分页模式，为true时忽略page，按cursor向后翻页
+    private Boolean cursorMode;
+
+    //上一页返回的nextCursor，查询第一页时不传
+    private String cursor;
+
+    //游标分页时是否统计总记录数，默认不统计
+    private Boolean withTotal;
+
+    //以下字段由服务端解析cursor得到，前端无需传入
+    private LocalDateTime lastCreateTime;
+
+    private Long lastId;
+
+    //由服务端根据名称搜索索引得到的候选id，不为null时代替名称模糊查询
+    private List<Long> ids;
+
 }
@@ -0,0 +1,22 @@
+package com.sky.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+@ApiModel(description = "初始化分片上传时传递的数据模型")
+public class MultipartUploadInitDTO implements Serializable {
+
+    @ApiModelProperty("原始文件名")
+    private String fileName;
+
+    @ApiModelProperty("文件大小（字节）")
+    private Long fileSize;
+
+    @ApiModelProperty("文件标识，由前端根据文件内容或名称、大小、修改时间生成；相同标识的未完成任务会被续传")
+    private String fileKey;
+
+}
@@ -0,0 +1,18 @@
+package com.sky.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 包含公共审计字段的实体，实现该接口的实体由自动填充直接调用这些方法赋值，不经过反射
+ * 使用lombok的@Data生成的setter即满足该接口
+ */
+public interface Auditable {
+
+    void setCreateTime(LocalDateTime createTime);
+
+    void setCreateUser(Long createUser);
+
+    void setUpdateTime(LocalDateTime updateTime);
+
+    void setUpdateUser(Long updateUser);
+}
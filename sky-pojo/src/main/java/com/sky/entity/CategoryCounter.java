@@ -0,0 +1,35 @@
+package com.sky.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 分类引用计数，增量维护时各字段表示变化量
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryCounter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //分类id
+    private Long categoryId;
+
+    //起售中的菜品数量
+    private Integer dishOnSale;
+
+    //停售中的菜品数量
+    private Integer dishOffSale;
+
+    //起售中的套餐数量
+    private Integer setmealOnSale;
+
+    //停售中的套餐数量
+    private Integer setmealOffSale;
+}
@@ -0,0 +1,44 @@
+package com.sky.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 图片处理任务
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageTask implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int PENDING = 0;
+    public static final int RUNNING = 1;
+    public static final int DONE = 2;
+    public static final int FAILED = 3;
+
+    private Long id;
+
+    //原图的对象名称
+    private String objectName;
+
+    //0 待处理 1 处理中 2 已完成 3 失败
+    private Integer status;
+
+    //已尝试的次数
+    private Integer attempts;
+
+    //最后一次失败的原因
+    private String lastError;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+}
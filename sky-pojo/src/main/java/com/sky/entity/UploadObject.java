@@ -0,0 +1,44 @@
+package com.sky.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 上传文件索引，按内容的SHA-256去重
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadObject implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //文件内容的SHA-256
+    private String hash;
+
+    //对象存储中的对象名称
+    private String objectName;
+
+    //文件访问路径
+    private String url;
+
+    //文件大小（字节）
+    private Long size;
+
+    //引用次数
+    private Integer refCount;
+
+    //0 正常 1 清理中，清理中的文件不能再被复用
+    private Integer status;
+
+    private LocalDateTime createTime;
+
+    //最近一次上传或引用变化的时间
+    private LocalDateTime updateTime;
+}
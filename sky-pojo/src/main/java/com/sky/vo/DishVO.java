@@ -10,6 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -26,10 +27,14 @@ public class DishVO implements Serializable {
     private BigDecimal price;
     //图片
     private String image;
+    //各尺寸缩略图的访问路径，键为 w宽度；缩略图尚未生成时前端回退到原图
+    private Map<String, String> imageVariants;
     //描述信息
     private String description;
     //0 停售 1 起售
     private Integer status;
+    //创建时间
+    private LocalDateTime createTime;
     //更新时间
     private LocalDateTime updateTime;
     //分类名称
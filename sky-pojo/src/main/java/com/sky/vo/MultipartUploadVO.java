@@ -0,0 +1,32 @@
+package com.sky.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(description = "分片上传任务的状态")
+public class MultipartUploadVO implements Serializable {
+
+    @ApiModelProperty("上传任务id")
+    private String uploadId;
+
+    @ApiModelProperty("分片大小（字节），除最后一片外每片都是这个大小")
+    private Long partSize;
+
+    @ApiModelProperty("分片数量")
+    private Integer partCount;
+
+    @ApiModelProperty("已经上传完成的分片编号，续传时跳过这些分片")
+    private List<Integer> uploadedParts;
+
+}
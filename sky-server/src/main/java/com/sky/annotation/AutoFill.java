@@ -7,7 +7,8 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * 自定义注解，用于标识某个方法需要进行公共字段自动填充处理
+ * 自定义注解，用于标识某个mapper方法需要进行公共字段自动填充处理
+ * 参数可以是单个实体、实体的集合或数组，或者包含它们的多个参数
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
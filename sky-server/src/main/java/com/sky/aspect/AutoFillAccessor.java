@@ -0,0 +1,121 @@
+package com.sky.aspect;
+
+import com.sky.constant.AutoFillConstant;
+import com.sky.entity.Auditable;
+import com.sky.enumeration.OperationType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+/**
+ * 某个实体类的公共字段赋值器，每个类只解析一次
+ * 实现了Auditable接口的实体直接调用接口方法；其他实体用LambdaMetafactory为setter生成实现类，
+ * 之后的调用与普通方法调用相同，没有反射开销；生成失败时退回MethodHandle
+ */
+@Slf4j
+public final class AutoFillAccessor {
+
+    private static final ClassValue<AutoFillAccessor> ACCESSORS = new ClassValue<AutoFillAccessor>() {
+        @Override
+        protected AutoFillAccessor computeValue(Class<?> type) {
+            return Auditable.class.isAssignableFrom(type) ? AUDITABLE : resolve(type);
+        }
+    };
+
+    private static final AutoFillAccessor AUDITABLE = new AutoFillAccessor(
+            (entity, value) -> ((Auditable) entity).setCreateTime((LocalDateTime) value),
+            (entity, value) -> ((Auditable) entity).setCreateUser((Long) value),
+            (entity, value) -> ((Auditable) entity).setUpdateTime((LocalDateTime) value),
+            (entity, value) -> ((Auditable) entity).setUpdateUser((Long) value));
+
+    //没有对应setter时为null，跳过该字段
+    private final BiConsumer<Object, Object> createTime;
+    private final BiConsumer<Object, Object> createUser;
+    private final BiConsumer<Object, Object> updateTime;
+    private final BiConsumer<Object, Object> updateUser;
+
+    private AutoFillAccessor(BiConsumer<Object, Object> createTime, BiConsumer<Object, Object> createUser,
+                             BiConsumer<Object, Object> updateTime, BiConsumer<Object, Object> updateUser) {
+        this.createTime = createTime;
+        this.createUser = createUser;
+        this.updateTime = updateTime;
+        this.updateUser = updateUser;
+    }
+
+    /**
+     * 获取实体类的赋值器
+     *
+     * @param type
+     * @return
+     */
+    public static AutoFillAccessor of(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
+    /**
+     * 按操作类型为实体的公共字段赋值
+     *
+     * @param entity
+     * @param operationType
+     * @param now
+     * @param currentId
+     */
+    public void fill(Object entity, OperationType operationType, LocalDateTime now, Long currentId) {
+        if (operationType == OperationType.INSERT) {
+            set(createTime, entity, now);
+            set(createUser, entity, currentId);
+        }
+        set(updateTime, entity, now);
+        set(updateUser, entity, currentId);
+    }
+
+    private static void set(BiConsumer<Object, Object> setter, Object entity, Object value) {
+        if (setter != null) {
+            setter.accept(entity, value);
+        }
+    }
+
+    private static AutoFillAccessor resolve(Class<?> type) {
+        return new AutoFillAccessor(
+                setter(type, AutoFillConstant.SET_CREATE_TIME, LocalDateTime.class),
+                setter(type, AutoFillConstant.SET_CREATE_USER, Long.class),
+                setter(type, AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class),
+                setter(type, AutoFillConstant.SET_UPDATE_USER, Long.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> type, String name, Class<?> valueType) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.findVirtual(type, name, MethodType.methodType(void.class, valueType));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            log.debug("{}没有可访问的{}方法，跳过该字段", type.getName(), name);
+            return null;
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, valueType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            log.debug("为{}.{}生成赋值器失败，使用MethodHandle：{}", type.getName(), name, e.getMessage());
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (entity, value) -> {
+                try {
+                    generic.invokeExact(entity, value);
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            };
+        }
+    }
+}
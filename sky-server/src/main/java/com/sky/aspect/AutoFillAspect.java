@@ -1,93 +0,0 @@
-package com.sky.aspect;
-
-import com.sky.annotation.AutoFill;
-import com.sky.constant.AutoFillConstant;
-import com.sky.context.BaseContext;
-import com.sky.enumeration.OperationType;
-import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
-import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.stereotype.Component;
-
-import java.lang.reflect.Method;
-import java.time.LocalDateTime;
-
-/**
- * 自定义切面，实现公共字段自动填充处理逻辑
- */
-@Aspect
-@Component
-@Slf4j
-public class AutoFillAspect {
-
-    /**
-     * 切点，指定要在哪些方法上切入通知
-     */
-    @Pointcut("execution(* com.sky.mapper.*.*(..)) && @annotation(com.sky.annotation.AutoFill)")
-    public void autoFillPointCut() {
-    }
-
-    /**
-     * 通知（前置），在通知中进行公共字段的赋值。在Mapper方法执行之前，前置通知会先执行
-     */
-    @Before("autoFillPointCut()")
-    public void autoFill(JoinPoint joinPoint) {
-        log.info("开始进行公共字段自动填充...");
-
-        //获取当前被拦截的方法上的数据库操作类型
-        //利用被拦截的连接点获取方法签名对象，需要向下转型
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        //获得方法上的注解对象
-        AutoFill autoFill = signature.getMethod().getAnnotation(AutoFill.class);
-        //获得数据库操作类型的枚举对象
-        OperationType operationType = autoFill.value();
-
-        //获取到当前被拦截的方法的参数--实体对象（接下来需要往里面赋值）
-        Object[] args = joinPoint.getArgs();
-        if (args == null || args.length == 0) {
-            return;
-        }
-        Object entity = args[0];
-
-        //准备赋值的数据
-        LocalDateTime now = LocalDateTime.now();
-        Long currentId = BaseContext.getCurrentId();
-
-        //根据当前的操作类型，为对应的属性进行反射set赋值
-        if (operationType == OperationType.INSERT) {
-            //为4个公共字段赋值
-            try {
-                // 使用Class类的getDeclaredMethod方法获取到Method对象
-                // 在这里，这些对象是entity的公共字段的set方法的描述/句柄
-                Method setCreateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_TIME, LocalDateTime.class);
-                Method setCreateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_CREATE_USER, Long.class);
-                Method setUpdateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
-                Method setUpdateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_USER, Long.class);
-
-                //invoke method，传入对象和参数，就像是调用set方法一样
-                //同样使用了ThreadLocal获取id
-                setCreateTime.invoke(entity, now);
-                setCreateUser.invoke(entity, currentId);
-                setUpdateTime.invoke(entity, now);
-                setUpdateUser.invoke(entity, currentId);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        } else if (operationType == OperationType.UPDATE) {
-            //为2个公共字段赋值
-            try {
-                Method setUpdateTime = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_TIME, LocalDateTime.class);
-                Method setUpdateUser = entity.getClass().getDeclaredMethod(AutoFillConstant.SET_UPDATE_USER, Long.class);
-
-                //通过反射为对象属性赋值
-                setUpdateTime.invoke(entity, now);
-                setUpdateUser.invoke(entity, currentId);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-    }
-}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.sky.aspect;
+
+import com.sky.annotation.AutoFill;
+import com.sky.context.BaseContext;
+import com.sky.enumeration.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 公共字段自动填充的MyBatis插件，在执行insert/update语句之前为参数中的实体赋值
+ * 参数可以是单个实体、实体的集合或数组，也可以是多参数/@Param形成的Map（其中的实体、集合、数组都会被处理）；
+ * 同一次调用中的所有实体使用同一个时间和操作人，批量插入与单条插入走同一条路径
+ */
+@Component
+@Slf4j
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class AutoFillInterceptor implements Interceptor {
+
+    //没有@AutoFill注解的语句
+    private static final Object NONE = new Object();
+
+    //语句id -> 操作类型，每条语句只解析一次
+    private final Map<String, Object> operationTypes = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        Object parameter = invocation.getArgs()[1];
+        SqlCommandType commandType = ms.getSqlCommandType();
+        if (parameter != null && (commandType == SqlCommandType.INSERT || commandType == SqlCommandType.UPDATE)) {
+            Object operationType = operationTypes.computeIfAbsent(ms.getId(), AutoFillInterceptor::resolve);
+            if (operationType != NONE) {
+                fill(parameter, (OperationType) operationType);
+            }
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 为参数中的所有实体赋值，同一个对象只处理一次
+     */
+    private void fill(Object parameter, OperationType operationType) {
+        //准备赋值的数据，整批共享
+        LocalDateTime now = LocalDateTime.now();
+        Long currentId = BaseContext.getCurrentId();
+
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (parameter instanceof Map) {
+            //多参数或@Param参数，逐个处理其中的值
+            for (Object value : ((Map<?, ?>) parameter).values()) {
+                fillValue(value, operationType, now, currentId, visited);
+            }
+        } else {
+            fillValue(parameter, operationType, now, currentId, visited);
+        }
+        log.debug("公共字段自动填充：{} {}个对象", operationType, visited.size());
+    }
+
+    private void fillValue(Object value, OperationType operationType, LocalDateTime now, Long currentId, Set<Object> visited) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                fillEntity(element, operationType, now, currentId, visited);
+            }
+        } else if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                fillEntity(element, operationType, now, currentId, visited);
+            }
+        } else {
+            fillEntity(value, operationType, now, currentId, visited);
+        }
+    }
+
+    private void fillEntity(Object entity, OperationType operationType, LocalDateTime now, Long currentId, Set<Object> visited) {
+        if (entity != null && visited.add(entity)) {
+            AutoFillAccessor.of(entity.getClass()).fill(entity, operationType, now, currentId);
+        }
+    }
+
+    /**
+     * 根据语句id找到mapper接口中的方法，读取其上的@AutoFill注解
+     *
+     * @param statementId 形如 com.sky.mapper.DishMapper.insert
+     * @return 操作类型，没有注解时返回NONE
+     */
+    private static Object resolve(String statementId) {
+        int dot = statementId.lastIndexOf('.');
+        if (dot < 0) {
+            return NONE;
+        }
+        String methodName = statementId.substring(dot + 1);
+        try {
+            Class<?> mapper = Resources.classForName(statementId.substring(0, dot));
+            for (Method method : mapper.getMethods()) {
+                if (method.getName().equals(methodName) && method.isAnnotationPresent(AutoFill.class)) {
+                    return method.getAnnotation(AutoFill.class).value();
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            //不是由mapper接口声明的语句，例如selectKey
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sky.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 二级缓存的命中统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats implements Serializable {
+
+    //缓存名称
+    private String name;
+
+    //本地缓存当前条目数
+    private Integer localSize;
+
+    //本地缓存命中次数
+    private Long localHits;
+
+    //redis命中次数
+    private Long remoteHits;
+
+    //两级均未命中、回源加载的次数
+    private Long misses;
+
+    //本地缓存因容量或过期被淘汰的次数
+    private Long localEvictions;
+
+    //收到其他节点失效通知的次数
+    private Long remoteInvalidations;
+
+    //本地缓存命中率
+    private Double localHitRate;
+
+    //整体命中率
+    private Double hitRate;
+}
@@ -0,0 +1,179 @@
+package com.sky.cache;
+
+import com.sky.entity.Category;
+import com.sky.mapper.CategoryMapper;
+import com.sky.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 内存中的分类表：保存所有启用分类的不可变快照，按类型分组并预先排好序
+ * 读操作直接返回当前快照中的列表，不加锁；分类写操作提交后重新加载并整体替换快照，加载和替换串行执行，
+ * 同时通过redis发布订阅通知其他节点重新加载；定时与数据库比对，兜底处理绕过业务层的修改
+ */
+@Component
+@Slf4j
+public class CategoryTable implements MessageListener {
+
+    /**
+     * 分类变更通知的频道
+     */
+    public static final String CHANGE_CHANNEL = "sky:category:changed";
+
+    //当前节点的标识，用于忽略自己发出的通知
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.<Category>emptyList());
+
+    //快照替换后的回调
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    //串行执行“查询数据库-替换快照”，先开始的慢查询不会在后开始的查询之后用旧数据覆盖快照
+    private final Object reloadLock = new Object();
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 在开始处理请求之前加载分类表
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+        log.info("分类表加载完成，共{}个启用的分类", snapshot.all.size());
+    }
+
+    /**
+     * 根据类型查询启用的分类，已按 sort asc, create_time desc 排序
+     * 返回的列表不可修改，列表中的对象被所有请求共享，调用方不能修改
+     *
+     * @param type 分类类型，为null时返回所有类型
+     * @return
+     */
+    public List<Category> list(Integer type) {
+        Snapshot current = snapshot;
+        if (type == null) {
+            return current.all;
+        }
+        List<Category> list = current.byType.get(type);
+        return list == null ? Collections.<Category>emptyList() : list;
+    }
+
+    /**
+     * 是否为启用的分类
+     *
+     * @param id
+     * @return
+     */
+    public boolean contains(Long id) {
+        return id != null && snapshot.ids.contains(id);
+    }
+
+    /**
+     * 注册快照替换后的回调，用于清理基于分类数据构建的派生数据
+     *
+     * @param listener
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * 分类数据发生变化，在事务提交后重新加载并通知其他节点
+     */
+    public void changed() {
+        TransactionUtil.afterCommit(() -> {
+            reload();
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, nodeId);
+        });
+    }
+
+    /**
+     * 接收其他节点的变更通知
+     *
+     * @param message
+     * @param pattern
+     */
+    public void onMessage(Message message, byte[] pattern) {
+        String sender = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!nodeId.equals(sender)) {
+            reload();
+        }
+    }
+
+    /**
+     * 定时与数据库比对，内容不一致时替换快照
+     */
+    @Scheduled(initialDelayString = "${sky.cache.category-reconcile-interval:60000}",
+            fixedDelayString = "${sky.cache.category-reconcile-interval:60000}")
+    public void reconcile() {
+        synchronized (reloadLock) {
+            List<Category> latest = categoryMapper.list(null);
+            if (!latest.equals(snapshot.all)) {
+                log.info("分类表与数据库不一致，重新加载");
+                swap(latest);
+            }
+        }
+    }
+
+    /**
+     * 从数据库重新加载并替换快照
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            swap(categoryMapper.list(null));
+        }
+    }
+
+    private void swap(List<Category> categories) {
+        snapshot = new Snapshot(categories);
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * 不可变快照
+     */
+    private static class Snapshot {
+        private final List<Category> all;
+        private final Map<Integer, List<Category>> byType;
+        private final Set<Long> ids;
+
+        private Snapshot(List<Category> categories) {
+            //数据库已经排好序，分组时保持原有顺序
+            Map<Integer, List<Category>> grouped = new HashMap<>();
+            Set<Long> ids = new HashSet<>();
+            for (Category category : categories) {
+                ids.add(category.getId());
+                grouped.computeIfAbsent(category.getType(), k -> new ArrayList<>()).add(category);
+            }
+            Map<Integer, List<Category>> byType = new HashMap<>();
+            for (Map.Entry<Integer, List<Category>> e : grouped.entrySet()) {
+                byType.put(e.getKey(), Collections.unmodifiableList(e.getValue()));
+            }
+            this.all = Collections.unmodifiableList(new ArrayList<>(categories));
+            this.byType = Collections.unmodifiableMap(byType);
+            this.ids = Collections.unmodifiableSet(ids);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sky.cache;
+
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Employee;
+
+/**
+ * 已登录员工的身份信息，只包含请求处理中常用的字段，不可变，可以在线程间共享
+ */
+public final class EmployeePrincipal {
+
+    private final Long id;
+    private final String username;
+    private final String name;
+    private final Integer status;
+
+    private EmployeePrincipal(Long id, String username, String name, Integer status) {
+        this.id = id;
+        this.username = username;
+        this.name = name;
+        this.status = status;
+    }
+
+    public static EmployeePrincipal of(Employee employee) {
+        return new EmployeePrincipal(employee.getId(), employee.getUsername(), employee.getName(), employee.getStatus());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    /**
+     * 账号是否处于启用状态
+     *
+     * @return
+     */
+    public boolean isEnabled() {
+        return StatusConstant.ENABLE.equals(status);
+    }
+}
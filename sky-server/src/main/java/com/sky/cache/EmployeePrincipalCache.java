@@ -0,0 +1,121 @@
+package com.sky.cache;
+
+import com.sky.entity.Employee;
+import com.sky.mapper.EmployeeMapper;
+import com.sky.properties.CacheProperties;
+import com.sky.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 员工身份信息的缓存：员工id -> 用户名、姓名、账号状态
+ * 拦截器用它判断账号是否被禁用，不再按主键查询数据库。
+ * 员工信息修改或启用禁用后，在事务提交时清理本节点的条目并通过redis发布订阅通知其他节点清理，
+ * 禁用账号立即生效，不用等到令牌过期；条目超过过期时间后重新从数据库加载，通知丢失时也能在有限时间内生效
+ */
+@Component
+@Slf4j
+public class EmployeePrincipalCache implements MessageListener {
+
+    /**
+     * 员工信息变更通知的频道
+     */
+    public static final String CHANGE_CHANNEL = "sky:employee:changed";
+
+    //员工数量有限，且只有验证通过的令牌中的员工id才会被加载，不限制条目数
+    private final Map<Long, Entry> principals = new ConcurrentHashMap<>();
+
+    //每次清理时递增；加载期间发生过清理的结果不放入缓存，避免把修改前读到的旧数据留在缓存中
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    private EmployeeMapper employeeMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    /**
+     * 根据id查询员工身份信息，未缓存或已过期时从数据库加载
+     *
+     * @param id
+     * @return 员工不存在时返回null
+     */
+    public EmployeePrincipal get(Long id) {
+        long now = System.currentTimeMillis();
+        Entry entry = principals.get(id);
+        if (entry != null && now - entry.loadedAt < TimeUnit.SECONDS.toMillis(cacheProperties.getEmployeePrincipalTtl())) {
+            return entry.principal;
+        }
+        long before = version.get();
+        Employee employee = employeeMapper.getById(id);
+        if (employee == null) {
+            if (entry != null) {
+                principals.remove(id, entry);
+            }
+            return null;
+        }
+        EmployeePrincipal principal = EmployeePrincipal.of(employee);
+        if (version.get() == before) {
+            Entry loaded = new Entry(principal, now);
+            if (entry == null) {
+                principals.putIfAbsent(id, loaded);
+            } else {
+                principals.replace(id, entry, loaded);
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * 员工信息发生变化，在事务提交后清理本节点的条目并通知其他节点
+     *
+     * @param id
+     */
+    public void invalidate(Long id) {
+        TransactionUtil.afterCommit(() -> {
+            evict(id);
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, String.valueOf(id));
+        });
+    }
+
+    /**
+     * 接收员工信息变更通知
+     *
+     * @param message
+     * @param pattern
+     */
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            evict(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("无效的员工变更通知：{}", body);
+        }
+    }
+
+    private void evict(Long id) {
+        version.incrementAndGet();
+        principals.remove(id);
+    }
+
+    private static class Entry {
+        private final EmployeePrincipal principal;
+        private final long loadedAt;
+
+        private Entry(EmployeePrincipal principal, long loadedAt) {
+            this.principal = principal;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sky.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 菜单快照：已经序列化并gzip压缩好的响应体，以及根据内容计算的版本号
+ * 对象不可变，可以被多个请求同时读取
+ */
+public class MenuSnapshot {
+
+    private final byte[] gzipBody;
+    private final String etag;
+    private final long createTime = System.currentTimeMillis();
+
+    public MenuSnapshot(byte[] gzipBody, String version) {
+        this.gzipBody = gzipBody;
+        //同一内容会以压缩和不压缩两种编码返回，使用弱校验
+        this.etag = "W/\"" + version + "\"";
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * 快照是否已经超过最长使用时间
+     *
+     * @param maxAgeMillis
+     * @return
+     */
+    public boolean isOlderThan(long maxAgeMillis) {
+        return System.currentTimeMillis() - createTime > maxAgeMillis;
+    }
+
+    /**
+     * 将快照写入响应：版本号未变化时返回304，客户端支持gzip时直接输出压缩后的字节，否则边解压边输出
+     *
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    public void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag.substring(2))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLength(gzipBody.length);
+            response.getOutputStream().write(gzipBody);
+        } else {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipBody))) {
+                StreamUtils.copy(in, response.getOutputStream());
+            }
+        }
+    }
+}
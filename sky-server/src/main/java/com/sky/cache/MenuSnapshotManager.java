@@ -0,0 +1,146 @@
+package com.sky.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.properties.CacheProperties;
+import com.sky.result.Result;
+import com.sky.service.CategoryService;
+import com.sky.service.DishService;
+import com.sky.vo.DishVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 菜单快照管理：每个分类的菜品列表、每种类型的分类列表在每个版本只序列化和压缩一次，
+ * 之后的读请求直接输出快照字节；菜品缓存失效或分类表变更时（包括其他节点发起的）丢弃快照；
+ * 只为启用的分类构建快照，客户端传入的其他分类id和类型共用一个空列表快照，不占用内存也不查询数据库
+ */
+@Component
+@Slf4j
+public class MenuSnapshotManager {
+
+    private static final String DISH_PREFIX = "dish_";
+    private static final String CATEGORY_PREFIX = "category_";
+
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    //每个key对应一个构建中或已构建完成的快照，同一个key只有一个线程构建，其他线程等待它的结果
+    private final Map<String, CompletableFuture<MenuSnapshot>> snapshots = new ConcurrentHashMap<>();
+
+    //不存在或未启用的分类返回的空列表
+    private final MenuSnapshot empty = build("empty", Collections.emptyList());
+
+    @Autowired
+    private DishService dishService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private TwoLevelCache<List<DishVO>> dishCache;
+    @Autowired
+    private CategoryTable categoryTable;
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @PostConstruct
+    public void init() {
+        dishCache.addEvictionListener(key -> snapshots.remove(DISH_PREFIX + key));
+        //分类列表的快照全部重建，已经停用或删除的分类的菜品快照一并丢弃
+        categoryTable.addChangeListener(() -> snapshots.keySet().removeIf(key -> key.startsWith(CATEGORY_PREFIX)
+                || key.startsWith(DISH_PREFIX) && !categoryTable.contains(Long.valueOf(key.substring(DISH_PREFIX.length())))));
+    }
+
+    /**
+     * 获取分类下菜品列表的快照
+     *
+     * @param categoryId
+     * @return
+     */
+    public MenuSnapshot dishMenu(Long categoryId) {
+        if (!categoryTable.contains(categoryId)) {
+            return empty;
+        }
+        return get(DISH_PREFIX + categoryId, () -> dishService.listWithFlavor(categoryId));
+    }
+
+    /**
+     * 获取分类列表的快照
+     *
+     * @param type
+     * @return
+     */
+    public MenuSnapshot categoryList(Integer type) {
+        if (type != null && categoryTable.list(type).isEmpty()) {
+            return empty;
+        }
+        String key = type == null ? "all" : String.valueOf(type);
+        return get(CATEGORY_PREFIX + key, () -> categoryService.list(type));
+    }
+
+    private MenuSnapshot get(String key, Supplier<Object> loader) {
+        //超过本地缓存过期时间的快照重新构建一次，防止错过失效通知后一直使用旧数据；内容未变时版本号也不变
+        CompletableFuture<MenuSnapshot> future = snapshots.get(key);
+        if (future != null && future.isDone() && !future.isCompletedExceptionally()
+                && future.join().isOlderThan(TimeUnit.SECONDS.toMillis(cacheProperties.getLocalTtl()))) {
+            snapshots.remove(key, future);
+            future = null;
+        }
+
+        //查询和序列化在map之外进行，不阻塞其他key和失效时的remove；
+        //构建期间被失效的快照只返回给已经在等待的请求，不会留在map中
+        if (future == null) {
+            CompletableFuture<MenuSnapshot> created = new CompletableFuture<>();
+            future = snapshots.putIfAbsent(key, created);
+            if (future == null) {
+                future = created;
+                try {
+                    created.complete(build(key, loader.get()));
+                } catch (RuntimeException e) {
+                    snapshots.remove(key, created);
+                    created.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * 按统一返回格式序列化、压缩并计算版本号
+     */
+    private MenuSnapshot build(String key, Object data) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Result.success(data));
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+                gzip.write(json);
+            }
+            String version = DigestUtils.md5DigestAsHex(json);
+            log.info("构建菜单快照：{}，版本：{}，原始{}字节，压缩后{}字节", key, version, json.length, bos.size());
+            return new MenuSnapshot(bos.toByteArray(), version);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("菜单快照序列化失败：" + key, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.sky.cache;
+
+import com.sky.properties.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已吊销令牌的存储
+ * 吊销的令牌id保存在redis中，过期时间等于令牌的剩余有效期；每个节点在内存中维护一个布隆过滤器作为前置判断，
+ * 过滤器判断不存在时直接放行，只有命中时才查询redis确认，绝大多数请求不产生redis访问。
+ * 吊销时通过发布订阅通知所有节点更新过滤器，定时从redis重建过滤器以清除已过期的令牌id
+ */
+@Component
+@Slf4j
+public class TokenRevocationStore implements MessageListener {
+
+    /**
+     * 令牌吊销通知的频道
+     */
+    public static final String REVOKE_CHANNEL = "sky:token:revoked";
+
+    private static final String KEY_PREFIX = "sky:token:revoked:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    private volatile BloomFilter filter;
+
+    //过滤器是否已经从redis完整加载；启动时redis不可用则所有令牌都查询redis，直到重建成功
+    private volatile boolean ready;
+
+    //重建期间新吊销的令牌id同时写入正在构建的过滤器，避免替换时丢失
+    private volatile BloomFilter rebuilding;
+
+    //写入过滤器与替换过滤器互斥：写入要么发生在替换之前并同时写入新过滤器，要么发生在替换之后
+    private final Object swapLock = new Object();
+
+    @PostConstruct
+    public void init() {
+        filter = new BloomFilter(jwtProperties.getRevocationExpectedInsertions(), jwtProperties.getRevocationFpp());
+        rebuild();
+    }
+
+    /**
+     * 吊销令牌
+     *
+     * @param tokenId   令牌id
+     * @param expiresAt 令牌的过期时间（毫秒时间戳）
+     */
+    public void revoke(String tokenId, long expiresAt) {
+        long ttl = expiresAt - System.currentTimeMillis();
+        if (ttl <= 0) {
+            //已经过期的令牌不需要吊销
+            return;
+        }
+        stringRedisTemplate.opsForValue().set(KEY_PREFIX + tokenId, "1", ttl, TimeUnit.MILLISECONDS);
+        add(tokenId);
+        stringRedisTemplate.convertAndSend(REVOKE_CHANNEL, tokenId);
+    }
+
+    /**
+     * 判断令牌是否已被吊销，只有布隆过滤器命中时才查询redis；redis不可用时按已吊销处理
+     *
+     * @param tokenId
+     * @return
+     */
+    public boolean isRevoked(String tokenId) {
+        if (ready && !filter.mightContain(tokenId)) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(KEY_PREFIX + tokenId));
+        } catch (Exception e) {
+            log.warn("查询令牌吊销状态失败：{}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 接收吊销通知，把令牌id加入本节点的过滤器
+     *
+     * @param message
+     * @param pattern
+     */
+    public void onMessage(Message message, byte[] pattern) {
+        add(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 定时从redis重建过滤器，清除已经过期的令牌id，同时兜底处理丢失的通知
+     */
+    @Scheduled(initialDelayString = "${sky.jwt.revocation-rebuild-interval:600000}",
+            fixedDelayString = "${sky.jwt.revocation-rebuild-interval:600000}")
+    public synchronized void rebuild() {
+        BloomFilter next = new BloomFilter(jwtProperties.getRevocationExpectedInsertions(), jwtProperties.getRevocationFpp());
+        //在此之前吊销的令牌已经写入redis，一定会被扫描到；之后吊销的同时写入next
+        synchronized (swapLock) {
+            rebuilding = next;
+        }
+        int count;
+        try {
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+            count = stringRedisTemplate.execute((RedisCallback<Integer>) connection -> {
+                int scanned = 0;
+                try (Cursor<byte[]> cursor = connection.scan(options)) {
+                    while (cursor.hasNext()) {
+                        String key = new String(cursor.next(), StandardCharsets.UTF_8);
+                        next.put(key.substring(KEY_PREFIX.length()));
+                        scanned++;
+                    }
+                }
+                return scanned;
+            });
+        } catch (Exception e) {
+            //重建失败时保留原来的过滤器
+            log.warn("重建令牌吊销过滤器失败：{}", e.getMessage());
+            synchronized (swapLock) {
+                rebuilding = null;
+            }
+            return;
+        }
+        synchronized (swapLock) {
+            filter = next;
+            rebuilding = null;
+        }
+        ready = true;
+        log.info("令牌吊销过滤器重建完成，共{}个已吊销的令牌", count);
+    }
+
+    private void add(String tokenId) {
+        synchronized (swapLock) {
+            filter.put(tokenId);
+            if (rebuilding != null) {
+                rebuilding.put(tokenId);
+            }
+        }
+    }
+}
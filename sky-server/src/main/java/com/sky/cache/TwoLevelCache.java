@@ -0,0 +1,256 @@
+package com.sky.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 二级缓存：本地缓存（L1，有容量上限和过期时间的LRU）+ redis（L2）
+ * 读取顺序为 L1 -> L2 -> 回源加载；失效时删除redis中的数据和本节点的L1，
+ * 并通过redis发布订阅通知其他节点删除各自的L1
+ * 失效和回源并发时不写入旧数据：本节点按失效次数判断加载期间是否发生过失效；
+ * redis中失效时写入短时间的占位值，回源结果只在key不存在时写入，其他节点加载期间的失效也不会被覆盖
+ * 注意：L1中的对象在多个请求间共享，调用方不能修改取到的对象
+ *
+ * @param <V> 缓存值类型，需要能被redis的值序列化器序列化
+ */
+@Slf4j
+public class TwoLevelCache<V> {
+
+    //失效后的占位值及其过期时间（秒），需要大于一次回源加载的耗时
+    private static final String TOMBSTONE = "__evicted__";
+    private static final long TOMBSTONE_TTL_SECONDS = 10;
+
+    private final String name;
+    private final String keyPrefix;
+    private final long remoteTtlSeconds;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final TwoLevelCacheManager manager;
+    private final LocalCache<V> localCache;
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong remoteHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong remoteInvalidations = new AtomicLong();
+
+    //本节点的失效次数，每次失效（包括其他节点通知的）加一，用于发现回源期间发生的失效
+    private final AtomicLong generation = new AtomicLong();
+
+    //失效监听器，本节点和其他节点发起的失效都会通知
+    private final List<Consumer<String>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    TwoLevelCache(String name, String keyPrefix, int localMaxSize, long localTtlSeconds, long remoteTtlSeconds,
+                  RedisTemplate<String, Object> redisTemplate, TwoLevelCacheManager manager) {
+        this.name = name;
+        this.keyPrefix = keyPrefix;
+        this.remoteTtlSeconds = remoteTtlSeconds;
+        this.redisTemplate = redisTemplate;
+        this.manager = manager;
+        this.localCache = new LocalCache<>(localMaxSize, TimeUnit.SECONDS.toMillis(localTtlSeconds));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 注册失效监听器，用于清理基于本缓存数据构建的派生数据
+     *
+     * @param listener 参数为失效的key
+     */
+    public void addEvictionListener(Consumer<String> listener) {
+        evictionListeners.add(listener);
+    }
+
+    /**
+     * 获取缓存，两级都没有时调用loader加载并写入两级缓存；loader返回null时不缓存
+     * 加载期间key被失效时，加载结果只返回给本次调用，不写入缓存
+     *
+     * @param key
+     * @param loader
+     * @return
+     */
+    public V get(String key, Supplier<V> loader) {
+        V value = localCache.get(key);
+        if (value != null) {
+            localHits.incrementAndGet();
+            return value;
+        }
+
+        long before = generation.get();
+        String redisKey = keyPrefix + key;
+        Object cached = redisTemplate.opsForValue().get(redisKey);
+        if (cached != null && !TOMBSTONE.equals(cached)) {
+            remoteHits.incrementAndGet();
+            value = cast(cached);
+            if (generation.get() == before) {
+                localCache.put(key, value);
+            }
+            return value;
+        }
+
+        misses.incrementAndGet();
+        value = loader.get();
+        if (value != null && generation.get() == before) {
+            //占位值还在时写入失败，说明加载期间被失效过，本地也不缓存
+            Boolean stored = redisTemplate.opsForValue().setIfAbsent(redisKey, value, remoteTtlSeconds, TimeUnit.SECONDS);
+            if (Boolean.TRUE.equals(stored) && generation.get() == before) {
+                localCache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 失效单个key
+     *
+     * @param key
+     */
+    public void evict(String key) {
+        evict(Collections.singletonList(key));
+    }
+
+    /**
+     * 失效一组key：把redis中的数据替换为占位值、删除本节点的数据，并通知其他节点
+     *
+     * @param keys
+     */
+    public void evict(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        generation.incrementAndGet();
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            redisKeys.add(keyPrefix + key);
+        }
+        log.info("缓存{}失效：{}", name, redisKeys);
+        for (String redisKey : redisKeys) {
+            redisTemplate.opsForValue().set(redisKey, TOMBSTONE, TOMBSTONE_TTL_SECONDS, TimeUnit.SECONDS);
+        }
+        for (String key : keys) {
+            localCache.remove(key);
+            notifyEviction(key);
+        }
+        manager.publishEvict(name, keys);
+    }
+
+    /**
+     * 收到其他节点的失效通知，只删除本地缓存
+     *
+     * @param key
+     */
+    void evictLocal(String key) {
+        remoteInvalidations.incrementAndGet();
+        generation.incrementAndGet();
+        localCache.remove(key);
+        notifyEviction(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    private void notifyEviction(String key) {
+        for (Consumer<String> listener : evictionListeners) {
+            listener.accept(key);
+        }
+    }
+
+    /**
+     * 获取命中统计
+     *
+     * @return
+     */
+    public CacheStats stats() {
+        long local = localHits.get();
+        long remote = remoteHits.get();
+        long miss = misses.get();
+        long total = local + remote + miss;
+        return CacheStats.builder()
+                .name(name)
+                .localSize(localCache.size())
+                .localHits(local)
+                .remoteHits(remote)
+                .misses(miss)
+                .localEvictions(localCache.evictions.get())
+                .remoteInvalidations(remoteInvalidations.get())
+                .localHitRate(total == 0 ? 0 : (double) local / total)
+                .hitRate(total == 0 ? 0 : (double) (local + remote) / total)
+                .build();
+    }
+
+    /**
+     * 有容量上限和过期时间的LRU本地缓存
+     */
+    private static class LocalCache<V> {
+
+        private final int maxSize;
+        private final long ttlMillis;
+        private final AtomicLong evictions = new AtomicLong();
+        private final LinkedHashMap<String, Node<V>> map;
+
+        private LocalCache(int maxSize, long ttlMillis) {
+            this.maxSize = maxSize;
+            this.ttlMillis = ttlMillis;
+            //按访问顺序排列，超出容量时淘汰最久未访问的条目
+            this.map = new LinkedHashMap<String, Node<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Node<V>> eldest) {
+                    if (size() > LocalCache.this.maxSize) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized V get(String key) {
+            Node<V> node = map.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.expireAt <= System.currentTimeMillis()) {
+                map.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return node.value;
+        }
+
+        private synchronized void put(String key, V value) {
+            map.put(key, new Node<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+
+        private synchronized void remove(String key) {
+            map.remove(key);
+        }
+
+        private synchronized int size() {
+            return map.size();
+        }
+    }
+
+    private static class Node<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Node(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
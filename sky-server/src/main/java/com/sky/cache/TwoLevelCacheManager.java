@@ -0,0 +1,106 @@
+package com.sky.cache;
+
+import com.sky.properties.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 二级缓存管理器：创建缓存、广播和接收跨节点的本地缓存失效通知、汇总命中统计
+ */
+@Component
+@Slf4j
+public class TwoLevelCacheManager implements MessageListener {
+
+    /**
+     * 本地缓存失效通知的频道
+     */
+    public static final String EVICT_CHANNEL = "sky:cache:evict";
+
+    private static final String SEPARATOR = "|";
+
+    //当前节点的标识，用于忽略自己发出的通知
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache<?>> caches = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    /**
+     * 创建二级缓存
+     *
+     * @param name             缓存名称
+     * @param keyPrefix        redis中的key前缀
+     * @param remoteTtlSeconds redis中的过期时间（秒）
+     * @param <V>
+     * @return
+     */
+    public <V> TwoLevelCache<V> create(String name, String keyPrefix, long remoteTtlSeconds) {
+        TwoLevelCache<V> cache = new TwoLevelCache<>(name, keyPrefix,
+                cacheProperties.getLocalMaxSize(), cacheProperties.getLocalTtl(), remoteTtlSeconds,
+                redisTemplate, this);
+        caches.put(name, cache);
+        log.info("创建二级缓存：{}", name);
+        return cache;
+    }
+
+    /**
+     * 通知其他节点删除本地缓存
+     *
+     * @param name
+     * @param keys
+     */
+    void publishEvict(String name, Collection<String> keys) {
+        for (String key : keys) {
+            stringRedisTemplate.convertAndSend(EVICT_CHANNEL, nodeId + SEPARATOR + name + SEPARATOR + key);
+        }
+    }
+
+    /**
+     * 接收失效通知，格式为 节点标识|缓存名称|key
+     *
+     * @param message
+     * @param pattern
+     */
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache<?> cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    /**
+     * 所有缓存的命中统计
+     *
+     * @return
+     */
+    public List<CacheStats> stats() {
+        List<CacheStats> stats = new ArrayList<>();
+        for (TwoLevelCache<?> cache : caches.values()) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,87 @@
+package com.sky.cache;
+
+import com.sky.utils.JwtPrincipal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已验证令牌的缓存：令牌的SHA-256摘要 -> 解析出的用户id、令牌id和过期时间
+ * 命中时不再验签和解析JSON；过期时间按毫秒精确判断，到期的条目不会再被返回，
+ * 不在内存中保存令牌原文
+ */
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Map<String, JwtPrincipal> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 查询令牌对应的身份信息，未缓存或已到期时返回null
+     *
+     * @param token
+     * @return
+     */
+    public JwtPrincipal get(String token) {
+        String key = digest(token);
+        JwtPrincipal entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.getExpiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 缓存已经验证通过的令牌；缓存已满且清理过期条目后仍然没有空间时不缓存
+     *
+     * @param token
+     * @param principal 验证令牌得到的身份信息
+     */
+    public void put(String token, JwtPrincipal principal) {
+        if (entries.size() >= maxSize) {
+            evictExpired();
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        entries.put(digest(token), principal);
+    }
+
+    /**
+     * 清理已到期的条目
+     */
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<JwtPrincipal> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getExpiresAt() <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
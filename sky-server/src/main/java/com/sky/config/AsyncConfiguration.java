@@ -0,0 +1,29 @@
+package com.sky.config;
+
+import com.sky.context.ContextTaskDecorator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * 配置类，开启@Async并让异步任务继承请求上下文
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfiguration {
+
+    /**
+     * spring boot自动配置的applicationTaskExecutor会使用容器中的TaskDecorator，
+     * @Async方法和注入该线程池提交的任务都能读到发起请求的操作人
+     *
+     * @return
+     */
+    @Bean
+    public TaskDecorator contextTaskDecorator() {
+        log.info("注册请求上下文传递的任务装饰器...");
+        return new ContextTaskDecorator();
+    }
+}
@@ -0,0 +1,30 @@
+package com.sky.config;
+
+import com.sky.cache.TwoLevelCache;
+import com.sky.cache.TwoLevelCacheManager;
+import com.sky.constant.CacheConstant;
+import com.sky.properties.CacheProperties;
+import com.sky.vo.DishVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置类，用于创建业务使用的二级缓存
+ */
+@Configuration
+@Slf4j
+public class CacheConfiguration {
+
+    /**
+     * 菜品缓存，key为分类id
+     */
+    @Bean
+    public TwoLevelCache<List<DishVO>> dishCache(TwoLevelCacheManager twoLevelCacheManager, CacheProperties cacheProperties) {
+        return twoLevelCacheManager.create(CacheConstant.DISH_CACHE, CacheConstant.DISH_KEY_PREFIX,
+                TimeUnit.MINUTES.toSeconds(cacheProperties.getDishTtl()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.sky.config;
+
+import com.sky.executor.BoundedExecutor;
+import com.sky.properties.ExecutorProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 配置类，创建执行慢操作的有界线程池
+ */
+@Configuration
+@Slf4j
+public class ExecutorConfiguration {
+
+    /**
+     * 文件上传线程池
+     *
+     * @param executorProperties
+     * @return
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedExecutor uploadExecutor(ExecutorProperties executorProperties) {
+        log.info("创建文件上传线程池：{}", executorProperties.getUpload());
+        return new BoundedExecutor("upload", executorProperties.getUpload());
+    }
+
+    /**
+     * 图片处理线程池，用于生成缩略图
+     *
+     * @param executorProperties
+     * @return
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedExecutor imageExecutor(ExecutorProperties executorProperties) {
+        log.info("创建图片处理线程池：{}", executorProperties.getImage());
+        return new BoundedExecutor("image", executorProperties.getImage());
+    }
+}
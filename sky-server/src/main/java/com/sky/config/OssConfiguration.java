@@ -1,26 +1,55 @@
 package com.sky.config;
 
+import com.aliyun.oss.ClientBuilderConfiguration;
 import com.sky.properties.AliOssProperties;
+import com.sky.properties.StorageProperties;
+import com.sky.storage.LocalObjectStorage;
 import com.sky.utils.AliOssUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * 配置类，用于创建AliOssUtil对象
+ * 配置类，根据 sky.storage.type 创建对象存储：oss 创建AliOssUtil，local 创建本地文件系统存储
  */
 @Configuration
 @Slf4j
 public class OssConfiguration {
 
-    @Bean
+    /**
+     * 创建长期存活的OSS客户端，容器关闭时释放连接池
+     *
+     * @param aliOssProperties
+     * @return
+     */
+    @Bean(destroyMethod = "shutdown")
     @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "sky.storage", name = "type", havingValue = "oss", matchIfMissing = true)
     public AliOssUtil aliOssUtil(AliOssProperties aliOssProperties){
         log.info("开始创建阿里云文件上传工具类对象：{}",aliOssProperties);
+        ClientBuilderConfiguration configuration = new ClientBuilderConfiguration();
+        configuration.setMaxConnections(aliOssProperties.getMaxConnections());
+        configuration.setConnectionTimeout(aliOssProperties.getConnectionTimeout());
+        configuration.setSocketTimeout(aliOssProperties.getSocketTimeout());
         return new AliOssUtil(aliOssProperties.getEndpoint(),
                 aliOssProperties.getAccessKeyId(),
                 aliOssProperties.getAccessKeySecret(),
-                aliOssProperties.getBucketName());
+                aliOssProperties.getBucketName(),
+                configuration);
+    }
+
+    /**
+     * 创建本地文件系统存储，文件通过 /files/** 访问
+     *
+     * @param storageProperties
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "sky.storage", name = "type", havingValue = "local")
+    public LocalObjectStorage localObjectStorage(StorageProperties storageProperties) {
+        log.info("开始创建本地文件存储：{}", storageProperties);
+        return new LocalObjectStorage(storageProperties.getLocalDir(), storageProperties.getLocalUrlPrefix());
     }
-}
\ No newline at end of file
+}
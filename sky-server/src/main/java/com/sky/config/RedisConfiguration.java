@@ -0,0 +1,62 @@
+package com.sky.config;
+
+import com.sky.cache.CategoryTable;
+import com.sky.cache.EmployeePrincipalCache;
+import com.sky.cache.TokenRevocationStore;
+import com.sky.cache.TwoLevelCacheManager;
+import com.sky.search.NameSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * 配置类，用于创建RedisTemplate对象
+ */
+@Configuration
+@Slf4j
+public class RedisConfiguration {
+
+    @Bean
+    public RedisTemplate redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        log.info("开始创建redis模板对象...");
+        RedisTemplate redisTemplate = new RedisTemplate();
+        //设置redis的连接工厂对象
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        //设置redis key的序列化器，value使用默认的jdk序列化器
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        return redisTemplate;
+    }
+
+    /**
+     * 订阅二级缓存的失效通知、分类表和员工信息的变更通知、令牌的吊销通知以及名称索引的变更通知
+     *
+     * @param redisConnectionFactory
+     * @param twoLevelCacheManager
+     * @param categoryTable
+     * @param tokenRevocationStore
+     * @param employeePrincipalCache
+     * @param nameSearchIndex
+     * @return
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       TwoLevelCacheManager twoLevelCacheManager,
+                                                                       CategoryTable categoryTable,
+                                                                       TokenRevocationStore tokenRevocationStore,
+                                                                       EmployeePrincipalCache employeePrincipalCache,
+                                                                       NameSearchIndex nameSearchIndex) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(twoLevelCacheManager, new ChannelTopic(TwoLevelCacheManager.EVICT_CHANNEL));
+        container.addMessageListener(categoryTable, new ChannelTopic(CategoryTable.CHANGE_CHANNEL));
+        container.addMessageListener(tokenRevocationStore, new ChannelTopic(TokenRevocationStore.REVOKE_CHANNEL));
+        container.addMessageListener(employeePrincipalCache, new ChannelTopic(EmployeePrincipalCache.CHANGE_CHANNEL));
+        container.addMessageListener(nameSearchIndex, new ChannelTopic(NameSearchIndex.CHANGE_CHANNEL));
+        return container;
+    }
+}
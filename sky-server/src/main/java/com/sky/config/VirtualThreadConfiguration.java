@@ -0,0 +1,125 @@
+package com.sky.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.sky.properties.ThreadsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 配置类，虚拟线程模式：sky.threads.virtual=true 且运行在JDK 21及以上时生效
+ * tomcat的请求处理和@Async任务都在虚拟线程上执行，每个请求一个虚拟线程，阻塞在数据库或外部调用上时不占用平台线程；
+ * 并发不再受tomcat线程池大小限制，真正的限制是数据库连接池（druid的max-active），
+ * 因此在没有配置max-wait时为连接池设置等待上限，等待超时的请求直接失败。
+ * 项目按Java 8编译，虚拟线程的API通过反射调用
+ */
+@Configuration
+@Conditional(VirtualThreadConfiguration.OnVirtualThreads.class)
+@Slf4j
+public class VirtualThreadConfiguration {
+
+    private final ExecutorService executor;
+
+    public VirtualThreadConfiguration(ThreadsProperties threadsProperties) {
+        //虚拟线程被固定时打印堆栈，必须在创建第一个虚拟线程之前设置
+        String tracePinned = threadsProperties.getTracePinned();
+        if (tracePinned != null && !tracePinned.isEmpty() && System.getProperty("jdk.tracePinnedThreads") == null) {
+            System.setProperty("jdk.tracePinnedThreads", tracePinned);
+        }
+        this.executor = newVirtualThreadPerTaskExecutor();
+        log.info("启用虚拟线程模式，固定诊断：{}", tracePinned);
+    }
+
+    /**
+     * tomcat使用虚拟线程处理请求
+     *
+     * @return
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * @Async任务使用虚拟线程执行，替换spring boot自动配置的线程池，同样传递请求上下文
+     *
+     * @param taskDecorator
+     * @return
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(TaskDecorator taskDecorator) {
+        TaskExecutorAdapter adapter = new TaskExecutorAdapter(executor);
+        adapter.setTaskDecorator(taskDecorator);
+        return adapter;
+    }
+
+    /**
+     * 没有配置 spring.datasource.druid.max-wait 时，为连接池设置 sky.threads.connection-max-wait
+     * 静态方法，不提前初始化本配置类
+     *
+     * @param environment
+     * @return
+     */
+    @Bean
+    public static BeanPostProcessor virtualThreadDataSourcePostProcessor(Environment environment) {
+        long maxWait = environment.getProperty("sky.threads.connection-max-wait", Long.class, 3000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                //配置属性在优先级更高的后处理器中已经绑定，小于0表示没有配置
+                if (bean instanceof DruidDataSource && ((DruidDataSource) bean).getMaxWait() < 0) {
+                    ((DruidDataSource) bean).setMaxWait(maxWait);
+                    log.info("虚拟线程模式，数据库连接最长等待{}ms", maxWait);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("当前JDK不支持虚拟线程", e);
+        }
+    }
+
+    /**
+     * 开启了虚拟线程模式且当前JDK支持虚拟线程
+     */
+    static class OnVirtualThreads implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            if (!Boolean.parseBoolean(context.getEnvironment().getProperty("sky.threads.virtual", "false"))) {
+                return false;
+            }
+            try {
+                Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return true;
+            } catch (NoSuchMethodException e) {
+                log.warn("已配置虚拟线程模式，但当前JDK {} 不支持虚拟线程，继续使用平台线程池", System.getProperty("java.version"));
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.sky.controller.admin;
+
+import com.sky.cache.CacheStats;
+import com.sky.cache.TwoLevelCacheManager;
+import com.sky.result.Result;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 缓存监控
+ */
+@RestController
+@RequestMapping("/admin/cache")
+@Api(tags = "缓存监控接口")
+@Slf4j
+public class CacheController {
+
+    @Autowired
+    private TwoLevelCacheManager twoLevelCacheManager;
+
+    /**
+     * 查询各缓存的命中统计
+     *
+     * @return
+     */
+    @GetMapping("/stats")
+    @ApiOperation("查询缓存命中统计")
+    public Result<List<CacheStats>> stats() {
+        return Result.success(twoLevelCacheManager.stats());
+    }
+}
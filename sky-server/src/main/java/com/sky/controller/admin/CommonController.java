@@ -1,18 +1,34 @@
 package com.sky.controller.admin;
 
 import com.sky.constant.MessageConstant;
+import com.sky.dto.MultipartUploadInitDTO;
+import com.sky.exception.BaseException;
+import com.sky.executor.BoundedExecutor;
 import com.sky.result.Result;
-import com.sky.utils.AliOssUtil;
+import com.sky.service.MultipartUploadService;
+import com.sky.service.UploadObjectService;
+import com.sky.vo.MultipartUploadVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.util.UUID;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 /**
  * 通用接口
@@ -24,33 +40,123 @@ import java.util.UUID;
 public class CommonController {
 
     @Autowired
-    private AliOssUtil aliOssUtil;
+    private UploadObjectService uploadObjectService;
+
+    @Autowired
+    private MultipartUploadService multipartUploadService;
+
+    @Autowired
+    @Qualifier("uploadExecutor")
+    private BoundedExecutor uploadExecutor;
 
     /**
      * 文件上传
+     * 上传在专用的有界线程池中执行，servlet线程立即返回；线程池已满或超时时返回上传失败
      * @param file
      * @return
      */
     @PostMapping("/upload")
     @ApiOperation("文件上传")
-    public Result<String> upload(MultipartFile file){
+    public DeferredResult<Result<String>> upload(MultipartFile file){
         log.info("文件上传：{}",file);
+        return async(file.getOriginalFilename(), () -> doUpload(file));
+    }
+
+    /**
+     * 初始化分片上传，相同文件标识的未完成任务会返回已上传的分片，用于断点续传
+     * @param multipartUploadInitDTO
+     * @return
+     */
+    @PostMapping("/upload/multipart/init")
+    @ApiOperation("初始化分片上传")
+    public Result<MultipartUploadVO> initMultipart(@RequestBody MultipartUploadInitDTO multipartUploadInitDTO) {
+        log.info("初始化分片上传：{}", multipartUploadInitDTO);
+        return Result.success(multipartUploadService.init(multipartUploadInitDTO));
+    }
+
+    /**
+     * 上传一个分片，前端可以并行上传多个分片
+     * @param uploadId
+     * @param partNumber 从1开始
+     * @param file 分片内容
+     * @return
+     */
+    @PostMapping("/upload/multipart/part")
+    @ApiOperation("上传分片")
+    public DeferredResult<Result<String>> uploadPart(String uploadId, Integer partNumber, MultipartFile file) {
+        log.info("上传分片：{}，第{}片", uploadId, partNumber);
+        return async(uploadId + "#" + partNumber, () -> {
+            try (InputStream inputStream = file.getInputStream()) {
+                multipartUploadService.uploadPart(uploadId, partNumber, inputStream, file.getSize());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Result.success();
+        });
+    }
+
+    /**
+     * 所有分片上传完成后合并
+     * @param uploadId
+     * @return 文件访问路径
+     */
+    @PostMapping("/upload/multipart/complete")
+    @ApiOperation("完成分片上传")
+    public DeferredResult<Result<String>> completeMultipart(String uploadId) {
+        log.info("完成分片上传：{}", uploadId);
+        return async(uploadId, () -> Result.success(multipartUploadService.complete(uploadId)));
+    }
+
+    /**
+     * 取消分片上传
+     * @param uploadId
+     * @return
+     */
+    @DeleteMapping("/upload/multipart/{uploadId}")
+    @ApiOperation("取消分片上传")
+    public Result abortMultipart(@PathVariable String uploadId) {
+        log.info("取消分片上传：{}", uploadId);
+        multipartUploadService.abort(uploadId);
+        return Result.success();
+    }
+
+    /**
+     * 在上传线程池中执行，线程池已满、超时或失败时返回对应的错误信息；超时后取消任务，释放线程池中的线程
+     */
+    private <T> DeferredResult<Result<T>> async(String target, Supplier<Result<T>> task) {
+        DeferredResult<Result<T>> deferredResult = new DeferredResult<>(uploadExecutor.getTimeout());
+        CompletableFuture<Result<T>> future = uploadExecutor.submit(task);
+        deferredResult.onTimeout(() -> {
+            uploadExecutor.recordTimeout();
+            log.error("文件上传超时，取消任务：{}", target);
+            deferredResult.setResult(Result.error(MessageConstant.UPLOAD_FAILED));
+            future.cancel(true);
+        });
+
+        future.whenComplete((result, ex) -> {
+            if (ex instanceof CancellationException) {
+                //超时取消，已经返回过结果
+                return;
+            }
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                log.error("文件上传失败：{}，{}", target, cause.getMessage());
+                if (cause instanceof RejectedExecutionException) {
+                    result = Result.error(MessageConstant.SYSTEM_BUSY);
+                } else if (cause instanceof BaseException) {
+                    result = Result.error(cause.getMessage());
+                } else {
+                    result = Result.error(MessageConstant.UPLOAD_FAILED);
+                }
+            }
+            deferredResult.setResult(result);
+        });
+        return deferredResult;
+    }
 
-        try {
-            //原始文件名
-            String originalFilename = file.getOriginalFilename();
-            //截取原始文件名的后缀   dfdfdf.png
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            //构造新文件名称
-            String objectName = UUID.randomUUID().toString() + extension;
-
-            //文件的请求路径
-            String filePath = aliOssUtil.upload(file.getBytes(), objectName);
-            return Result.success(filePath);
-        } catch (IOException e) {
-            log.error("文件上传失败：{}", e);
-        }
-
-        return Result.error(MessageConstant.UPLOAD_FAILED);
+    private Result<String> doUpload(MultipartFile file) {
+        //按内容去重：相同内容的文件已经存在时直接返回原来的路径，不再上传
+        String filePath = uploadObjectService.upload(file.getOriginalFilename(), file, file.getSize());
+        return Result.success(filePath);
     }
-}
\ No newline at end of file
+}
@@ -69,6 +69,20 @@ public class DishController {
         return Result.success();
     }
 
+    /**
+     * 根据id批量查询菜品
+     *
+     * @param ids
+     * @return
+     */
+    @GetMapping("/batch")
+    @ApiOperation("根据id批量查询菜品")
+    public Result<List<DishVO>> getByIds(@RequestParam List<Long> ids) {
+        log.info("根据id批量查询菜品：{}", ids);
+        List<DishVO> list = dishService.getByIdsWithFlavor(ids);
+        return Result.success(list);
+    }
+
     /**
      * 根据id查询菜品
      *
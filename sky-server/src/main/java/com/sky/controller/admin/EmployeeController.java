@@ -1,15 +1,19 @@
 package com.sky.controller.admin;
 
+import com.sky.cache.TokenRevocationStore;
 import com.sky.constant.JwtClaimsConstant;
 import com.sky.dto.EmployeeDTO;
 import com.sky.dto.EmployeeLoginDTO;
 import com.sky.dto.EmployeePageQueryDTO;
 import com.sky.entity.Employee;
+import com.sky.limiter.LoginLimiterStats;
+import com.sky.limiter.LoginRateLimiter;
 import com.sky.properties.JwtProperties;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
 import com.sky.service.EmployeeService;
-import com.sky.utils.JwtUtil;
+import com.sky.utils.JwtCodec;
+import com.sky.utils.JwtPrincipal;
 import com.sky.vo.EmployeeLoginVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -17,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,9 +37,18 @@ public class EmployeeController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private JwtCodec jwtCodec;
+
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     /**
      * 登录
      *
@@ -43,9 +57,12 @@ public class EmployeeController {
      */
     @PostMapping("/login")
     @ApiOperation(value = "员工登录")
-    public Result<EmployeeLoginVO> login(@RequestBody EmployeeLoginDTO employeeLoginDTO) {
+    public Result<EmployeeLoginVO> login(@RequestBody EmployeeLoginDTO employeeLoginDTO, HttpServletRequest request) {
         log.info("员工登录：{}", employeeLoginDTO);
 
+        // 在查询数据库之前按用户名和IP限流
+        loginRateLimiter.check(String.valueOf(employeeLoginDTO.getUsername()), request.getRemoteAddr());
+
         Employee employee = employeeService.login(employeeLoginDTO);
 
         //登录成功后，生成jwt令牌
@@ -53,10 +70,7 @@ public class EmployeeController {
         // 把员工的id作为值，定义的常量作为键放进claim集合中
         claims.put(JwtClaimsConstant.EMP_ID, employee.getId());
         // 生成token字符串
-        String token = JwtUtil.createJWT(
-                jwtProperties.getAdminSecretKey(),
-                jwtProperties.getAdminTtl(),
-                claims);
+        String token = jwtCodec.createAdminToken(claims);
 
         // 有了jwt令牌后，就可以连着其他需要的信息一起，生成前端需要的视图对象
         EmployeeLoginVO employeeLoginVO = EmployeeLoginVO.builder() // 创建builder对象
@@ -71,13 +85,29 @@ public class EmployeeController {
     }
 
     /**
-     * 退出
+     * 查询登录限流统计
+     *
+     * @return
+     */
+    @GetMapping("/login/stats")
+    @ApiOperation("查询登录限流统计")
+    public Result<LoginLimiterStats> loginStats() {
+        return Result.success(loginRateLimiter.stats());
+    }
+
+    /**
+     * 退出，吊销当前令牌，令牌在剩余有效期内不能再使用
      *
+     * @param request
      * @return
      */
     @PostMapping("/logout")
     @ApiOperation("员工退出")
-    public Result<String> logout() {
+    public Result<String> logout(HttpServletRequest request) {
+        // 拦截器已经校验过令牌，这里重新验证只是为了取得令牌id和过期时间
+        JwtPrincipal principal = jwtCodec.verifyAdmin(request.getHeader(jwtProperties.getAdminTokenName()));
+        log.info("员工退出：{}", principal.getId());
+        tokenRevocationStore.revoke(principal.getTokenId(), principal.getExpiresAt());
         return Result.success();
     }
 
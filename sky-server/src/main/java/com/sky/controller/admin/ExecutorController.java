@@ -0,0 +1,43 @@
+package com.sky.controller.admin;
+
+import com.sky.executor.BoundedExecutor;
+import com.sky.executor.ExecutorStats;
+import com.sky.result.Result;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 线程池监控
+ */
+@RestController
+@RequestMapping("/admin/executor")
+@Api(tags = "线程池监控接口")
+@Slf4j
+public class ExecutorController {
+
+    @Autowired
+    private List<BoundedExecutor> executors;
+
+    /**
+     * 查询各线程池的队列深度和拒绝次数
+     *
+     * @return
+     */
+    @GetMapping("/stats")
+    @ApiOperation("查询线程池统计")
+    public Result<List<ExecutorStats>> stats() {
+        List<ExecutorStats> stats = new ArrayList<>(executors.size());
+        for (BoundedExecutor executor : executors) {
+            stats.add(executor.stats());
+        }
+        return Result.success(stats);
+    }
+}
@@ -0,0 +1,44 @@
+package com.sky.controller.admin;
+
+import com.sky.result.Result;
+import com.sky.search.IndexType;
+import com.sky.search.NameSearchIndex;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 搜索相关接口
+ */
+@RestController
+@RequestMapping("/admin/search")
+@Api(tags = "搜索相关接口")
+@Slf4j
+public class SearchController {
+
+    @Autowired
+    private NameSearchIndex nameSearchIndex;
+
+    /**
+     * 名称联想提示，直接从内存索引中查询，不访问数据库
+     *
+     * @param type    DISH、SETMEAL、CATEGORY、EMPLOYEE
+     * @param keyword 名称片段或拼音首字母
+     * @param limit
+     * @return
+     */
+    @GetMapping("/suggest")
+    @ApiOperation("名称联想提示")
+    public Result<List<String>> suggest(@RequestParam IndexType type, String keyword,
+                                        @RequestParam(defaultValue = "10") Integer limit) {
+        List<String> names = nameSearchIndex.suggest(type, keyword, limit);
+        return Result.success(names);
+    }
+}
@@ -0,0 +1,48 @@
+package com.sky.controller.admin;
+
+import com.sky.result.Result;
+import com.sky.service.CategoryCounterService;
+import com.sky.vo.DishOverViewVO;
+import com.sky.vo.SetmealOverViewVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 工作台
+ */
+@RestController
+@RequestMapping("/admin/workspace")
+@Api(tags = "工作台相关接口")
+@Slf4j
+public class WorkspaceController {
+
+    @Autowired
+    private CategoryCounterService categoryCounterService;
+
+    /**
+     * 查询菜品总览
+     *
+     * @return
+     */
+    @GetMapping("/overviewDishes")
+    @ApiOperation("查询菜品总览")
+    public Result<DishOverViewVO> dishOverView() {
+        return Result.success(categoryCounterService.getDishOverView());
+    }
+
+    /**
+     * 查询套餐总览
+     *
+     * @return
+     */
+    @GetMapping("/overviewSetmeals")
+    @ApiOperation("查询套餐总览")
+    public Result<SetmealOverViewVO> setmealOverView() {
+        return Result.success(categoryCounterService.getSetmealOverView());
+    }
+}
@@ -0,0 +1,41 @@
+package com.sky.controller.user;
+
+import com.sky.cache.MenuSnapshotManager;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 用户端分类浏览
+ */
+@RestController("userCategoryController")
+@RequestMapping("/user/category")
+@Api(tags = "C端-分类接口")
+@Slf4j
+public class CategoryController {
+
+    @Autowired
+    private MenuSnapshotManager menuSnapshotManager;
+
+    /**
+     * 根据类型查询分类，直接输出预先压缩好的快照，支持If-None-Match
+     *
+     * @param type
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping("/list")
+    @ApiOperation("查询分类")
+    public void list(Integer type, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        menuSnapshotManager.categoryList(type).writeTo(request, response);
+    }
+}
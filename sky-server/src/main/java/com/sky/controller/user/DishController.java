@@ -0,0 +1,42 @@
+package com.sky.controller.user;
+
+import com.sky.cache.MenuSnapshotManager;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 用户端菜品浏览
+ */
+@RestController("userDishController")
+@RequestMapping("/user/dish")
+@Api(tags = "C端-菜品浏览接口")
+@Slf4j
+public class DishController {
+
+    @Autowired
+    private MenuSnapshotManager menuSnapshotManager;
+
+    /**
+     * 根据分类id查询菜品，直接输出预先压缩好的快照，支持If-None-Match
+     *
+     * @param categoryId
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping("/list")
+    @ApiOperation("根据分类id查询菜品")
+    public void list(Long categoryId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        menuSnapshotManager.dishMenu(categoryId).writeTo(request, response);
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.sky.executor;
+
+import com.sky.context.RequestContext;
+import com.sky.properties.ExecutorProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 有界线程池，用于执行慢的阻塞操作（对象存储、外部接口），让servlet线程尽快返回
+ * 线程数和队列都有上限，队列满时立即拒绝；任务会携带提交时的请求上下文；记录拒绝和超时次数
+ * 取消返回的future时，排队中的任务不再执行，执行中的任务所在线程会被中断
+ * 不实现Executor接口，避免替换掉spring boot自动配置的@Async线程池
+ */
+@Slf4j
+public class BoundedExecutor {
+
+    private final String name;
+    private final long timeout;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public BoundedExecutor(String name, ExecutorProperties.Pool config) {
+        this.name = name;
+        this.timeout = config.getTimeout();
+        this.queueCapacity = config.getQueueCapacity();
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.pool = new ThreadPoolExecutor(config.getCoreSize(), config.getMaxSize(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()), threadFactory,
+                (runnable, executor) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException(name + "线程池已满");
+                });
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param task
+     * @return 线程池已满时返回以RejectedExecutionException结束的future；调用cancel会中断执行中的任务
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        Supplier<T> wrapped = RequestContext.wrap(task);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = pool.submit(() -> {
+                try {
+                    result.complete(wrapped.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("{}线程池已满，拒绝任务", name);
+            result.completeExceptionally(e);
+            return result;
+        }
+        //CompletableFuture.cancel不会中断执行线程，由线程池返回的future完成取消
+        result.whenComplete((value, ex) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 记录一次等待超时
+     */
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 任务超时时间（毫秒）
+     *
+     * @return
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public ExecutorStats stats() {
+        return ExecutorStats.builder()
+                .name(name)
+                .active(pool.getActiveCount())
+                .poolSize(pool.getPoolSize())
+                .maxPoolSize(pool.getMaximumPoolSize())
+                .queueDepth(pool.getQueue().size())
+                .queueCapacity(queueCapacity)
+                .completed(pool.getCompletedTaskCount())
+                .rejected(rejected.sum())
+                .timeouts(timeouts.sum())
+                .build();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
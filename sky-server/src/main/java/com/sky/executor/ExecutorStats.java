@@ -0,0 +1,41 @@
+package com.sky.executor;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 线程池的运行统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutorStats implements Serializable {
+
+    //线程池名称
+    private String name;
+
+    //正在执行任务的线程数
+    private Integer active;
+
+    //当前线程数和最大线程数
+    private Integer poolSize;
+    private Integer maxPoolSize;
+
+    //排队中的任务数和队列容量
+    private Integer queueDepth;
+    private Integer queueCapacity;
+
+    //已完成的任务数
+    private Long completed;
+
+    //因队列已满被拒绝的任务数
+    private Long rejected;
+
+    //等待结果超时的任务数
+    private Long timeouts;
+}
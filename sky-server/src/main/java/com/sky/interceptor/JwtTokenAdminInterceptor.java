@@ -1,16 +1,22 @@
 package com.sky.interceptor;
 
-import com.sky.constant.JwtClaimsConstant;
+import com.sky.cache.EmployeePrincipal;
+import com.sky.cache.EmployeePrincipalCache;
+import com.sky.cache.TokenRevocationStore;
+import com.sky.cache.VerifiedTokenCache;
 import com.sky.context.BaseContext;
+import com.sky.context.RequestContext;
 import com.sky.properties.JwtProperties;
-import com.sky.utils.JwtUtil;
-import io.jsonwebtoken.Claims;
+import com.sky.utils.JwtCodec;
+import com.sky.utils.JwtPrincipal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -19,11 +25,36 @@ import javax.servlet.http.HttpServletResponse;
  */
 @Component
 @Slf4j
-public class JwtTokenAdminInterceptor implements HandlerInterceptor {
+public class JwtTokenAdminInterceptor implements AsyncHandlerInterceptor {
 
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private JwtCodec jwtCodec;
+
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
+    @Autowired
+    private EmployeePrincipalCache employeePrincipalCache;
+
+    //已验证令牌的缓存，命中时跳过验签和解析
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @PostConstruct
+    public void init() {
+        verifiedTokenCache = new VerifiedTokenCache(jwtProperties.getAdminVerifiedCacheSize());
+    }
+
+    /**
+     * 定时清理已过期的令牌，释放内存；过期令牌在读取时就会被拒绝，不依赖这里的清理
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredTokens() {
+        verifiedTokenCache.evictExpired();
+    }
+
     /**
      * 校验jwt
      *
@@ -47,11 +78,26 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
         //2、校验令牌
         try {
             log.info("jwt校验:{}", token);
-            // 解析token，获取Payload中的声明
-            Claims claims = JwtUtil.parseJWT(jwtProperties.getAdminSecretKey(), token);
-            // 通过Claims获取当前登陆员工的id
-            Long empId = Long.valueOf(claims.get(JwtClaimsConstant.EMP_ID).toString());
-            log.info("当前员工id：", empId);
+            // 先查已验证令牌的缓存，命中时直接得到员工id
+            JwtPrincipal principal = verifiedTokenCache.get(token);
+            if (principal == null) {
+                // 验签并读取Payload中的员工id、令牌id和过期时间
+                principal = jwtCodec.verifyAdmin(token);
+                verifiedTokenCache.put(token, principal);
+            }
+            // 已退出登录的令牌被吊销，缓存命中时也要检查
+            if (tokenRevocationStore.isRevoked(principal.getTokenId())) {
+                response.setStatus(401);
+                return false;
+            }
+            Long empId = principal.getId();
+            // 账号已删除或被禁用时拒绝，员工信息从缓存读取，不查询数据库
+            EmployeePrincipal employee = employeePrincipalCache.get(empId);
+            if (employee == null || !employee.isEnabled()) {
+                response.setStatus(401);
+                return false;
+            }
+            log.info("当前员工id：{}", empId);
             // 在获取到当前员工的id后，把它存储到ThreadLocal中，方便后续Service层获取并记录这位操作者的id信息
             BaseContext.setCurrentId(empId);
             //3、通过，放行
@@ -62,4 +108,28 @@ public class JwtTokenAdminInterceptor implements HandlerInterceptor {
             return false;
         }
     }
+
+    /**
+     * 请求结束后清除请求上下文，避免线程复用时读到上一个请求的操作人
+     *
+     * @param request
+     * @param response
+     * @param handler
+     * @param ex
+     */
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestContext.clear();
+    }
+
+    /**
+     * 异步接口开始异步处理后，servlet线程不再执行afterCompletion，在这里清除请求上下文；
+     * 异步结果返回时会重新经过拦截器
+     *
+     * @param request
+     * @param response
+     * @param handler
+     */
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestContext.clear();
+    }
 }
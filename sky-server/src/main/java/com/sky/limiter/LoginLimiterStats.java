@@ -0,0 +1,41 @@
+package com.sky.limiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 登录限流统计
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginLimiterStats implements Serializable {
+
+    //限流模式
+    private String mode;
+
+    //放行的登录尝试次数
+    private Long allowed;
+
+    //因同一IP上同一用户名尝试过多被拒绝的次数
+    private Long rejectedByUsername;
+
+    //因同一用户名在所有IP上合计尝试过多被拒绝的次数
+    private Long rejectedByAccount;
+
+    //因同一IP尝试过多被拒绝的次数
+    private Long rejectedByIp;
+
+    //redis不可用、只按本地限流放行的次数
+    private Long redisFailures;
+
+    //本地令牌桶当前保存的用户名+IP键、用户名键和IP键的数量
+    private Integer trackedUsernameKeys;
+    private Integer trackedAccountKeys;
+    private Integer trackedIpKeys;
+}
@@ -0,0 +1,131 @@
+package com.sky.limiter;
+
+import com.sky.constant.MessageConstant;
+import com.sky.exception.LoginFailedException;
+import com.sky.properties.LoginLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录限流：按客户端IP、同一IP上的用户名、以及用户名在所有IP上的合计分别限制登录尝试的频率，在查询数据库之前拒绝超出限制的请求
+ * 用户名+IP 的限额较小，限制单个客户端猜测一个账号；用户名合计的限额较大，限制从大量IP对同一账号的撞库，
+ * 单个客户端耗尽不了它，不能借此把账号锁住
+ * 总是先经过本地令牌桶；redis模式下本地放行后再经过redis中共享的令牌桶，redis不可用时退回只按本地限流
+ */
+@Component
+@Slf4j
+public class LoginRateLimiter {
+
+    private static final String MODE_REDIS = "redis";
+
+    @Autowired
+    private LoginLimitProperties loginLimitProperties;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private TokenBucketLimiter usernameLimiter;
+    private TokenBucketLimiter accountLimiter;
+    private TokenBucketLimiter ipLimiter;
+    private RedisTokenBucketLimiter redisUsernameLimiter;
+    private RedisTokenBucketLimiter redisAccountLimiter;
+    private RedisTokenBucketLimiter redisIpLimiter;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByUsername = new LongAdder();
+    private final LongAdder rejectedByAccount = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder redisFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        LoginLimitProperties p = loginLimitProperties;
+        usernameLimiter = new TokenBucketLimiter(p.getMaxKeys(), p.getUsernameBurst(), p.getUsernameInterval());
+        accountLimiter = new TokenBucketLimiter(p.getMaxKeys(), p.getAccountBurst(), p.getAccountInterval());
+        ipLimiter = new TokenBucketLimiter(p.getMaxKeys(), p.getIpBurst(), p.getIpInterval());
+        if (MODE_REDIS.equals(p.getMode())) {
+            redisUsernameLimiter = new RedisTokenBucketLimiter(stringRedisTemplate, "sky:login:limit:user:",
+                    p.getUsernameBurst(), p.getUsernameInterval());
+            redisAccountLimiter = new RedisTokenBucketLimiter(stringRedisTemplate, "sky:login:limit:account:",
+                    p.getAccountBurst(), p.getAccountInterval());
+            redisIpLimiter = new RedisTokenBucketLimiter(stringRedisTemplate, "sky:login:limit:ip:",
+                    p.getIpBurst(), p.getIpInterval());
+        }
+        log.info("登录限流模式：{}", p.getMode());
+    }
+
+    /**
+     * 登录前检查是否超出限制，超出时抛出登录失败异常
+     *
+     * @param username
+     * @param ip
+     */
+    public void check(String username, String ip) {
+        String usernameKey = username + "|" + ip;
+        //先按IP限制，避免换用户名绕过；再按用户名+IP限制，最后才消耗账号合计的限额
+        if (!ipLimiter.tryAcquire(ip)) {
+            reject(rejectedByIp, "IP", ip);
+        }
+        if (!usernameLimiter.tryAcquire(usernameKey)) {
+            reject(rejectedByUsername, "用户名", usernameKey);
+        }
+        if (!accountLimiter.tryAcquire(username)) {
+            reject(rejectedByAccount, "账号", username);
+        }
+        if (redisIpLimiter != null) {
+            boolean ipAllowed;
+            boolean usernameAllowed;
+            boolean accountAllowed;
+            try {
+                ipAllowed = redisIpLimiter.tryAcquire(ip);
+                usernameAllowed = !ipAllowed || redisUsernameLimiter.tryAcquire(usernameKey);
+                accountAllowed = !ipAllowed || !usernameAllowed || redisAccountLimiter.tryAcquire(username);
+            } catch (Exception e) {
+                log.warn("redis登录限流不可用，按本地限流放行：{}", e.getMessage());
+                redisFailures.increment();
+                ipAllowed = true;
+                usernameAllowed = true;
+                accountAllowed = true;
+            }
+            if (!ipAllowed) {
+                reject(rejectedByIp, "IP", ip);
+            }
+            if (!usernameAllowed) {
+                reject(rejectedByUsername, "用户名", usernameKey);
+            }
+            if (!accountAllowed) {
+                reject(rejectedByAccount, "账号", username);
+            }
+        }
+        allowed.increment();
+    }
+
+    /**
+     * 查询限流统计
+     *
+     * @return
+     */
+    public LoginLimiterStats stats() {
+        return LoginLimiterStats.builder()
+                .mode(loginLimitProperties.getMode())
+                .allowed(allowed.sum())
+                .rejectedByUsername(rejectedByUsername.sum())
+                .rejectedByAccount(rejectedByAccount.sum())
+                .rejectedByIp(rejectedByIp.sum())
+                .redisFailures(redisFailures.sum())
+                .trackedUsernameKeys(usernameLimiter.size())
+                .trackedAccountKeys(accountLimiter.size())
+                .trackedIpKeys(ipLimiter.size())
+                .build();
+    }
+
+    private void reject(LongAdder counter, String type, String key) {
+        counter.increment();
+        log.warn("登录尝试过于频繁，{}：{}", type, key);
+        throw new LoginFailedException(MessageConstant.LOGIN_TOO_FREQUENT);
+    }
+}
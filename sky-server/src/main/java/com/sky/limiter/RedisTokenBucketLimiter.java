@@ -0,0 +1,56 @@
+package com.sky.limiter;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collections;
+
+/**
+ * redis中的令牌桶，与本地令牌桶使用相同的GCRA算法，由lua脚本原子地完成判断和更新，多个节点共享
+ * 时间取redis服务器的时间，不受各节点时钟偏差影响
+ */
+public class RedisTokenBucketLimiter {
+
+    private static final RedisScript<Long> SCRIPT = new DefaultRedisScript<>(
+            "redis.replicate_commands() " +
+            "local t = redis.call('TIME') " +
+            "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+            "local interval = tonumber(ARGV[1]) " +
+            "local tolerance = tonumber(ARGV[2]) " +
+            "local tat = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "if tat < now then tat = now end " +
+            "local nxt = tat + interval " +
+            "if nxt - now > tolerance then return 0 end " +
+            "redis.call('SET', KEYS[1], nxt, 'PX', nxt - now) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String keyPrefix;
+    private final String interval;
+    private final String tolerance;
+
+    /**
+     * @param stringRedisTemplate
+     * @param keyPrefix           redis键的前缀
+     * @param burst               桶容量
+     * @param interval            补充一个令牌的间隔（毫秒）
+     */
+    public RedisTokenBucketLimiter(StringRedisTemplate stringRedisTemplate, String keyPrefix, int burst, long interval) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.interval = String.valueOf(interval);
+        this.tolerance = String.valueOf(burst * interval);
+    }
+
+    /**
+     * 尝试为键获取一个令牌
+     *
+     * @param key
+     * @return 获取成功返回true，桶中没有令牌返回false
+     */
+    public boolean tryAcquire(String key) {
+        Long result = stringRedisTemplate.execute(SCRIPT, Collections.singletonList(keyPrefix + key), interval, tolerance);
+        return result != null && result == 1L;
+    }
+}
@@ -0,0 +1,98 @@
+package com.sky.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按键区分的本地令牌桶，不加锁
+ * 每个键只用一个long保存“理论到达时间”（GCRA算法，与令牌桶等价）：
+ * 桶满时该值不晚于当前时间，每消耗一个令牌向后推一个补充间隔，超过当前时间 + 容量 × 间隔 时拒绝。
+ * 更新通过CAS完成；每个键有自己的桶，不同的键之间不会互相消耗令牌。
+ * 桶已经回满的键与不存在的键等价，键的数量达到上限时先清理这些键；仍然没有空间时拒绝新的键，
+ * 已有的键不受影响，内存占用不随攻击者构造的键无限增长
+ */
+@Slf4j
+public class TokenBucketLimiter {
+
+    //清理回满的键的最小间隔（毫秒），键数量持续处于上限时避免每次请求都遍历整个表
+    private static final long PURGE_INTERVAL = 1000;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    /**
+     * @param maxKeys  同时保存的键的上限
+     * @param burst    桶容量
+     * @param interval 补充一个令牌的间隔（毫秒）
+     */
+    public TokenBucketLimiter(int maxKeys, int burst, long interval) {
+        this.maxKeys = maxKeys;
+        this.interval = interval;
+        this.tolerance = burst * interval;
+    }
+
+    /**
+     * 尝试为键获取一个令牌
+     *
+     * @param key
+     * @return 获取成功返回true，桶中没有令牌或键的数量已达上限时返回false
+     */
+    public boolean tryAcquire(String key) {
+        long now = System.currentTimeMillis();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !purge(now)) {
+                return false;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + interval;
+            if (next - now > tolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前保存的键的数量
+     *
+     * @return
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * 清理桶已经回满的键
+     *
+     * @param now
+     * @return 清理后是否有空间保存新的键
+     */
+    private boolean purge(long now) {
+        long last = lastPurge.get();
+        if (now - last >= PURGE_INTERVAL && lastPurge.compareAndSet(last, now)) {
+            Iterator<AtomicLong> iterator = buckets.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().get() <= now) {
+                    iterator.remove();
+                }
+            }
+            if (buckets.size() >= maxKeys) {
+                log.warn("登录限流的键数量达到上限{}，拒绝新的键", maxKeys);
+            }
+        }
+        return buckets.size() < maxKeys;
+    }
+}
@@ -0,0 +1,61 @@
+package com.sky.mapper;
+
+import com.sky.entity.CategoryCounter;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface CategoryCounterMapper {
+
+    /**
+     * 按变化量累加计数，分类的计数行不存在时自动创建
+     *
+     * @param delta
+     */
+    void add(CategoryCounter delta);
+
+    /**
+     * 根据分类id查询计数
+     *
+     * @param categoryId
+     * @return
+     */
+    @Select("select * from category_counter where category_id = #{categoryId}")
+    CategoryCounter getByCategoryId(Long categoryId);
+
+    /**
+     * 汇总所有分类的计数
+     *
+     * @return
+     */
+    @Select("select ifnull(sum(dish_on_sale), 0) dish_on_sale, ifnull(sum(dish_off_sale), 0) dish_off_sale," +
+            " ifnull(sum(setmeal_on_sale), 0) setmeal_on_sale, ifnull(sum(setmeal_off_sale), 0) setmeal_off_sale" +
+            " from category_counter")
+    CategoryCounter sum();
+
+    /**
+     * 删除分类的计数
+     *
+     * @param categoryId
+     */
+    @Delete("delete from category_counter where category_id = #{categoryId}")
+    void deleteByCategoryId(Long categoryId);
+
+    /**
+     * 将所有计数清零，用于重建
+     */
+    @Update("update category_counter set dish_on_sale = 0, dish_off_sale = 0, setmeal_on_sale = 0, setmeal_off_sale = 0")
+    void resetAll();
+
+    /**
+     * 按菜品表重新统计菜品计数
+     */
+    void rebuildDishCount();
+
+    /**
+     * 按套餐表重新统计套餐计数
+     */
+    void rebuildSetmealCount();
+}
@@ -8,6 +8,8 @@ import com.sky.entity.Category;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
 
 import java.util.List;
 
@@ -22,6 +24,7 @@ public interface CategoryMapper {
     @Insert("insert into category(type, name, sort, status, create_time, update_time, create_user, update_user)" +
             " VALUES" +
             " (#{type}, #{name}, #{sort}, #{status}, #{createTime}, #{updateTime}, #{createUser}, #{updateUser})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
     @AutoFill(value = OperationType.INSERT)
     void insert(Category category);
 
@@ -33,6 +36,22 @@ public interface CategoryMapper {
      */
     Page<Category> pageQuery(CategoryPageQueryDTO categoryPageQueryDTO);
 
+    /**
+     * 游标分页查询，按(sort, create_time, id)定位
+     *
+     * @param categoryPageQueryDTO
+     * @return
+     */
+    List<Category> pageQueryByCursor(CategoryPageQueryDTO categoryPageQueryDTO);
+
+    /**
+     * 统计分页查询的总记录数
+     *
+     * @param categoryPageQueryDTO
+     * @return
+     */
+    Long countPageQuery(CategoryPageQueryDTO categoryPageQueryDTO);
+
     /**
      * 根据id删除分类
      *
@@ -56,4 +75,20 @@ public interface CategoryMapper {
      * @return
      */
     List<Category> list(Integer type);
+
+    /**
+     * 查询所有分类的id和名称，用于构建名称搜索索引
+     *
+     * @return
+     */
+    @Select("select id, name from category")
+    List<Category> listAllNames();
+
+    /**
+     * 根据主键批量查询分类的id和名称，用于其他节点通知后更新名称搜索索引
+     *
+     * @param ids
+     * @return
+     */
+    List<Category> listNamesByIds(List<Long> ids);
 }
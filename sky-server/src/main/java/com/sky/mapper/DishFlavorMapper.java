@@ -22,6 +22,24 @@ public interface DishFlavorMapper {
     @Delete("delete from dish_flavor where dish_id = #{dishId}")
     void deleteByDishId(Long dishId);
 
+    /**
+     * 根据菜品id批量删除对应的口味数据
+     * @param dishIds
+     */
+    void deleteByDishIds(List<Long> dishIds);
+
+    /**
+     * 根据主键批量删除口味数据
+     * @param ids
+     */
+    void deleteByIds(List<Long> ids);
+
+    /**
+     * 根据主键批量修改口味数据（一条语句完成）
+     * @param flavors
+     */
+    void updateBatch(List<DishFlavor> flavors);
+
     /**
      * 根据菜品id查询对应的口味数据
      * @param dishId
@@ -30,4 +48,11 @@ public interface DishFlavorMapper {
     @Select("select * from dish_flavor where dish_id = #{dishId}")
     List<DishFlavor> getByDishId(Long dishId);
 
+    /**
+     * 根据菜品id批量查询对应的口味数据
+     * @param dishIds
+     * @return
+     */
+    List<DishFlavor> getByDishIds(List<Long> dishIds);
+
 }
\ No newline at end of file
@@ -3,13 +3,17 @@ package com.sky.mapper;
 import com.github.pagehelper.Page;
 import com.sky.annotation.AutoFill;
 import com.sky.dto.DishPageQueryDTO;
+import com.sky.entity.CategoryCounter;
 import com.sky.entity.Dish;
 import com.sky.enumeration.OperationType;
 import com.sky.vo.DishVO;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.List;
+
 @Mapper
 public interface DishMapper {
 
@@ -38,6 +42,22 @@ public interface DishMapper {
      */
     Page<DishVO> pageQuery(DishPageQueryDTO dishPageQueryDTO);
 
+    /**
+     * 菜品游标分页查询，按(create_time, id)定位
+     *
+     * @param dishPageQueryDTO
+     * @return
+     */
+    List<DishVO> pageQueryByCursor(DishPageQueryDTO dishPageQueryDTO);
+
+    /**
+     * 统计菜品分页查询的总记录数
+     *
+     * @param dishPageQueryDTO
+     * @return
+     */
+    Long countPageQuery(DishPageQueryDTO dishPageQueryDTO);
+
     /**
      * 根据主键查询菜品
      *
@@ -47,6 +67,14 @@ public interface DishMapper {
     @Select("select * from dish where id = #{id}")
     Dish getById(Long id);
 
+    /**
+     * 根据主键批量查询菜品
+     *
+     * @param ids
+     * @return
+     */
+    List<Dish> getByIds(List<Long> ids);
+
     /**
      * 根据主键删除菜品数据
      *
@@ -55,6 +83,30 @@ public interface DishMapper {
     @Delete("delete from dish where id = #{id}")
     void deleteById(Long id);
 
+    /**
+     * 根据主键批量删除菜品数据
+     *
+     * @param ids
+     */
+    void deleteByIds(List<Long> ids);
+
+    /**
+     * 统计指定id中处于某状态的菜品数量
+     *
+     * @param ids
+     * @param status
+     * @return
+     */
+    Integer countByIdsAndStatus(@Param("ids") List<Long> ids, @Param("status") Integer status);
+
+    /**
+     * 按分类统计指定菜品中起售、停售的数量
+     *
+     * @param ids
+     * @return
+     */
+    List<CategoryCounter> countGroupByCategory(List<Long> ids);
+
     /**
      * 根据id动态修改菜品数据
      *
@@ -62,4 +114,47 @@ public interface DishMapper {
      */
     @AutoFill(value = OperationType.UPDATE)
     void update(Dish dish);
+
+    /**
+     * 动态条件查询菜品
+     *
+     * @param dish
+     * @return
+     */
+    List<Dish> list(Dish dish);
+
+    /**
+     * 查询所有菜品的id和名称，用于构建名称搜索索引
+     *
+     * @return
+     */
+    @Select("select id, name from dish")
+    List<Dish> listAllNames();
+
+    /**
+     * 根据主键批量查询菜品的id和名称，用于其他节点通知后更新名称搜索索引
+     *
+     * @param ids
+     * @return
+     */
+    List<Dish> listNamesByIds(List<Long> ids);
+
+    /**
+     * 按主键顺序分批查询菜品的id和图片，用于为已有的图片补充缩略图任务
+     *
+     * @param lastId 上一批最后一条的id，第一批传0
+     * @param limit
+     * @return
+     */
+    @Select("select id, image from dish where id > #{lastId} order by id limit #{limit}")
+    List<Dish> listImagesAfter(@Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 查询使用指定图片的菜品所在的分类
+     *
+     * @param image
+     * @return
+     */
+    @Select("select distinct category_id from dish where image = #{image}")
+    List<Long> listCategoryIdsByImage(String image);
 }
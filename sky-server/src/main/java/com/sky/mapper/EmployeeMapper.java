@@ -7,8 +7,11 @@ import com.sky.entity.Employee;
 import com.sky.enumeration.OperationType;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.List;
+
 // mybatis为这个接口动态地创建一个代理实现类，并注入ioc容器
 @Mapper
 public interface EmployeeMapper {
@@ -29,6 +32,7 @@ public interface EmployeeMapper {
      * @param employee
      */
     @Insert("insert into employee (name, username, password, phone, sex, id_number, create_time, update_time, create_user, update_user,status) " + "values " + "(#{name},#{username},#{password},#{phone},#{sex},#{idNumber},#{createTime},#{updateTime},#{createUser},#{updateUser},#{status})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
     @AutoFill(value = OperationType.INSERT)
     void insert(Employee employee);
 
@@ -41,6 +45,22 @@ public interface EmployeeMapper {
     // 在xml中实现接口方法，使用动态sql
     Page<Employee> pageQuery(EmployeePageQueryDTO employeePageQueryDTO);
 
+    /**
+     * 游标分页查询，按(create_time, id)定位
+     *
+     * @param employeePageQueryDTO
+     * @return
+     */
+    List<Employee> pageQueryByCursor(EmployeePageQueryDTO employeePageQueryDTO);
+
+    /**
+     * 统计分页查询的总记录数
+     *
+     * @param employeePageQueryDTO
+     * @return
+     */
+    Long countPageQuery(EmployeePageQueryDTO employeePageQueryDTO);
+
 
     /**
      * 根据主键动态修改属性
@@ -58,4 +78,20 @@ public interface EmployeeMapper {
      */
     @Select("select * from employee where id = #{id}")
     Employee getById(Long id);
+
+    /**
+     * 查询所有员工的id和姓名，用于构建名称搜索索引
+     *
+     * @return
+     */
+    @Select("select id, name from employee")
+    List<Employee> listAllNames();
+
+    /**
+     * 根据主键批量查询员工的id和名称，用于其他节点通知后更新名称搜索索引
+     *
+     * @param ids
+     * @return
+     */
+    List<Employee> listNamesByIds(List<Long> ids);
 }
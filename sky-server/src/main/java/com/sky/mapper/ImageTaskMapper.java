@@ -0,0 +1,119 @@
+package com.sky.mapper;
+
+import com.sky.entity.ImageTask;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface ImageTaskMapper {
+
+    /**
+     * 新增待处理的任务
+     *
+     * @param imageTask
+     */
+    @Insert("insert into image_task (object_name, status, attempts, create_time, update_time)" +
+            " values (#{objectName}, 0, 0, now(), now())")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insert(ImageTask imageTask);
+
+    /**
+     * 图片还没有任何任务时新增待处理的任务，用于为已有的图片补充任务
+     *
+     * @param objectName
+     * @return 新增的行数
+     */
+    @Insert("insert into image_task (object_name, status, attempts, create_time, update_time)" +
+            " select #{objectName}, 0, 0, now(), now() from dual" +
+            " where not exists (select 1 from image_task where object_name = #{objectName})")
+    int insertIfAbsent(String objectName);
+
+    /**
+     * 统计图片的任务数量，不区分状态
+     *
+     * @param objectName
+     * @return
+     */
+    @Select("select count(*) from image_task where object_name = #{objectName}")
+    int countByObjectName(String objectName);
+
+    /**
+     * 查询缩略图已经生成完成的图片
+     *
+     * @param objectNames
+     * @return
+     */
+    List<String> listDoneObjectNames(@Param("objectNames") List<String> objectNames);
+
+    /**
+     * 按创建顺序查询待处理的任务
+     *
+     * @param limit
+     * @return
+     */
+    @Select("select * from image_task where status = 0 order by id limit #{limit}")
+    List<ImageTask> listPending(int limit);
+
+    /**
+     * 认领任务，只有仍处于待处理状态时才成功，多个节点同时认领时只有一个成功
+     *
+     * @param id
+     * @return 更新的行数
+     */
+    @Update("update image_task set status = 1, attempts = attempts + 1, update_time = now() where id = #{id} and status = 0")
+    int claim(Long id);
+
+    /**
+     * 放回没有开始处理的任务，不计入尝试次数
+     *
+     * @param id
+     */
+    @Update("update image_task set status = 0, attempts = attempts - 1, update_time = now() where id = #{id} and status = 1")
+    void unclaim(Long id);
+
+    /**
+     * 修改任务状态
+     *
+     * @param id
+     * @param status
+     * @param lastError
+     */
+    @Update("update image_task set status = #{status}, last_error = #{lastError}, update_time = now() where id = #{id}")
+    void updateStatus(@Param("id") Long id, @Param("status") int status, @Param("lastError") String lastError);
+
+    /**
+     * 处理超时且已经用完尝试次数的任务标记为失败，不再放回队列
+     *
+     * @param before
+     * @param maxAttempts
+     * @return 更新的行数
+     */
+    @Update("update image_task set status = 3, last_error = '处理超时', update_time = now()" +
+            " where status = 1 and update_time < #{before} and attempts >= #{maxAttempts}")
+    int failStale(@Param("before") LocalDateTime before, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * 处理超时的任务重新放回队列，用于恢复处理节点重启时中断的任务；先调用failStale排除用完尝试次数的任务
+     *
+     * @param before
+     * @return 更新的行数
+     */
+    @Update("update image_task set status = 0, update_time = now() where status = 1 and update_time < #{before}")
+    int resetStale(LocalDateTime before);
+
+    /**
+     * 删除图片的所有任务，原图和缩略图被清理时调用
+     *
+     * @param objectName
+     */
+    @Delete("delete from image_task where object_name = #{objectName}")
+    void deleteByObjectName(String objectName);
+}
@@ -1,8 +1,11 @@
 package com.sky.mapper;
 
+import com.sky.entity.Setmeal;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.List;
+
 @Mapper
 public interface SetmealMapper {
 
@@ -14,4 +17,19 @@ public interface SetmealMapper {
     @Select("select count(id) from setmeal where category_id = #{categoryId}")
     Integer countByCategoryId(Long id);
 
+    /**
+     * 查询所有套餐的id和名称，用于构建名称搜索索引
+     * @return
+     */
+    @Select("select id, name from setmeal")
+    List<Setmeal> listAllNames();
+
+    /**
+     * 根据主键批量查询套餐的id和名称，用于其他节点通知后更新名称搜索索引
+     *
+     * @param ids
+     * @return
+     */
+    List<Setmeal> listNamesByIds(List<Long> ids);
+
 }
@@ -0,0 +1,113 @@
+package com.sky.mapper;
+
+import com.sky.entity.UploadObject;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface UploadObjectMapper {
+
+    /**
+     * 根据内容哈希查询
+     *
+     * @param hash
+     * @return
+     */
+    @Select("select * from upload_object where hash = #{hash}")
+    UploadObject getByHash(String hash);
+
+    /**
+     * 插入索引，相同内容并发上传时只保留先插入的一条
+     *
+     * @param uploadObject
+     */
+    @Insert("insert ignore into upload_object (hash, object_name, url, size, ref_count, create_time, update_time)" +
+            " values (#{hash}, #{objectName}, #{url}, #{size}, 0, now(), now())")
+    void insert(UploadObject uploadObject);
+
+    /**
+     * 刷新最近上传时间，重复上传的文件在宽限期内不会被清理；清理中的文件不会被刷新
+     *
+     * @param hash
+     * @return 更新的行数，为0时说明文件已经开始清理，不能复用
+     */
+    @Update("update upload_object set update_time = now() where hash = #{hash} and status = 0")
+    int touch(String hash);
+
+    /**
+     * 按访问路径调整引用次数，不在索引中的路径（去重之前上传的文件）不受影响；
+     * 清理中的记录不会被修改，它的引用次数由清理任务按实际引用校正
+     *
+     * @param url
+     * @param delta
+     * @return 更新的行数
+     */
+    @Update("update upload_object set ref_count = greatest(ref_count + #{delta}, 0), update_time = now()" +
+            " where url = #{url} and status = 0")
+    int addRefCount(@Param("url") String url, @Param("delta") int delta);
+
+    /**
+     * 统计指定路径处于清理中的记录数
+     *
+     * @param url
+     * @return
+     */
+    @Select("select count(*) from upload_object where url = #{url} and status = 1")
+    int countRemoving(String url);
+
+    /**
+     * 查询在指定时间之前就已经没有引用的文件
+     *
+     * @param before
+     * @param limit
+     * @return
+     */
+    @Select("select * from upload_object where ref_count = 0 and update_time < #{before} limit #{limit}")
+    List<UploadObject> listUnreferenced(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 统计菜品和套餐中实际引用该路径的数量，清理前用于确认
+     *
+     * @param url
+     * @return
+     */
+    @Select("select (select count(*) from dish where image = #{url}) + (select count(*) from setmeal where image = #{url})")
+    int countReferences(String url);
+
+    /**
+     * 标记为清理中，只有仍然没有引用、且在指定时间之后没有被上传或引用的记录才成功；
+     * 同时刷新修改时间，多个节点同时清理时只有一个成功
+     *
+     * @param hash
+     * @param before
+     * @return 更新的行数
+     */
+    @Update("update upload_object set status = 1, update_time = now()" +
+            " where hash = #{hash} and ref_count = 0 and update_time < #{before}")
+    int markRemoving(@Param("hash") String hash, @Param("before") LocalDateTime before);
+
+    /**
+     * 删除清理中的索引，对象删除之后调用
+     *
+     * @param hash
+     * @return 删除的行数
+     */
+    @Delete("delete from upload_object where hash = #{hash} and status = 1 and ref_count = 0")
+    int deleteRemoving(String hash);
+
+    /**
+     * 按实际引用数量校正引用次数，清理中的记录恢复为正常
+     *
+     * @param hash
+     * @param refCount
+     */
+    @Update("update upload_object set ref_count = #{refCount}, status = 0, update_time = now() where hash = #{hash}")
+    void setRefCount(@Param("hash") String hash, @Param("refCount") int refCount);
+}
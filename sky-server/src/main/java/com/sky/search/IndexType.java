@@ -0,0 +1,28 @@
+package com.sky.search;
+
+/**
+ * 名称索引的类型
+ */
+public enum IndexType {
+
+    /**
+     * 菜品
+     */
+    DISH,
+
+    /**
+     * 套餐
+     */
+    SETMEAL,
+
+    /**
+     * 分类
+     */
+    CATEGORY,
+
+    /**
+     * 员工
+     */
+    EMPLOYEE
+
+}
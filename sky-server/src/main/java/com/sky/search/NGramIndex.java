@@ -0,0 +1,247 @@
+package com.sky.search;
+
+import com.sky.utils.PinyinUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 名称的n-gram倒排索引（单字 + 二元组），同时索引名称的拼音首字母
+ * 查询语义与 like concat('%',name,'%') 一致（忽略大小写），可选按拼音首字母匹配；
+ * 写操作串行执行，读操作不加锁；改名时先加入新名称的倒排再删除旧名称独有的倒排，读操作不会查不到这条记录
+ */
+public class NGramIndex {
+
+    /**
+     * 倒排表：gram -> 包含该gram的记录id
+     */
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * 正排表：记录id -> 已索引的名称
+     */
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 新增或修改一条记录的名称
+     *
+     * @param id
+     * @param name
+     */
+    public synchronized void put(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        Entry entry = new Entry(id, name);
+        Set<String> grams = entry.grams();
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        Entry old = entries.put(id, entry);
+        if (old != null) {
+            Set<String> stale = old.grams();
+            stale.removeAll(grams);
+            removePostings(id, stale);
+        }
+    }
+
+    /**
+     * 删除一条记录
+     *
+     * @param id
+     */
+    public synchronized void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        removePostings(id, entry.grams());
+    }
+
+    private void removePostings(Long id, Set<String> grams) {
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空后整体重建
+     *
+     * @param names id -> 名称
+     */
+    public synchronized void rebuild(Map<Long, String> names) {
+        postings.clear();
+        entries.clear();
+        for (Map.Entry<Long, String> e : names.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * 按关键字查询，结果按相关度排序：完全相同 > 名称前缀 > 名称包含 > 首字母前缀 > 首字母包含，
+     * 相关度相同时名称越短越靠前
+     *
+     * @param keyword
+     * @param withInitials 是否按拼音首字母匹配
+     * @return 匹配记录的id
+     */
+    public List<Long> search(String keyword, boolean withInitials) {
+        List<Entry> matched = match(keyword, withInitials);
+        List<Long> ids = new ArrayList<>(matched.size());
+        for (Entry entry : matched) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    /**
+     * 联想提示，返回相关度最高的若干个名称
+     *
+     * @param keyword
+     * @param withInitials 是否按拼音首字母匹配
+     * @param limit
+     * @return
+     */
+    public List<String> suggest(String keyword, boolean withInitials, int limit) {
+        List<Entry> matched = match(keyword, withInitials);
+        List<String> names = new ArrayList<>(Math.min(limit, matched.size()));
+        for (int i = 0; i < matched.size() && i < limit; i++) {
+            names.add(matched.get(i).original);
+        }
+        return names;
+    }
+
+    /**
+     * 已索引的记录数
+     *
+     * @return
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private List<Entry> match(String keyword, boolean withInitials) {
+        if (keyword == null || keyword.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String key = keyword.toLowerCase();
+
+        //取各个gram的倒排表求交集，从最短的开始
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : queryGrams(key)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> candidates = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+
+        //二元组只能说明可能包含，需要逐条确认；不按首字母匹配时去掉只有首字母命中的记录
+        int maxScore = withInitials ? 4 : 2;
+        List<Entry> matched = new ArrayList<>();
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                int score = entry.score(key);
+                if (score >= 0 && score <= maxScore) {
+                    matched.add(entry);
+                }
+            }
+        }
+        matched.sort(Comparator.<Entry>comparingInt(e -> e.score(key))
+                .thenComparingInt(e -> e.name.length())
+                .thenComparing(e -> e.id));
+        return matched;
+    }
+
+    /**
+     * 索引时使用的gram：所有单字和所有二元组
+     */
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            grams.add(text.substring(i, i + 1));
+            if (i + 1 < text.length()) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 查询时使用的gram：单个字符查单字，否则查所有二元组
+     */
+    private static Set<String> queryGrams(String key) {
+        Set<String> grams = new HashSet<>();
+        if (key.length() == 1) {
+            grams.add(key);
+            return grams;
+        }
+        for (int i = 0; i + 1 < key.length(); i++) {
+            grams.add(key.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static class Entry {
+        private final Long id;
+        private final String original;
+        private final String name;
+        private final String initials;
+
+        private Entry(Long id, String original) {
+            this.id = id;
+            this.original = original;
+            this.name = original.toLowerCase();
+            this.initials = PinyinUtil.initials(original);
+        }
+
+        /**
+         * 名称和首字母的所有gram
+         */
+        private Set<String> grams() {
+            Set<String> grams = NGramIndex.grams(name);
+            grams.addAll(NGramIndex.grams(initials));
+            return grams;
+        }
+
+        /**
+         * 相关度，越小越相关，-1表示不匹配
+         */
+        private int score(String key) {
+            if (name.equals(key)) {
+                return 0;
+            }
+            if (name.startsWith(key)) {
+                return 1;
+            }
+            if (name.contains(key)) {
+                return 2;
+            }
+            if (initials.startsWith(key)) {
+                return 3;
+            }
+            if (initials.contains(key)) {
+                return 4;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.sky.search;
+
+import com.sky.entity.Category;
+import com.sky.entity.Dish;
+import com.sky.entity.Employee;
+import com.sky.entity.Setmeal;
+import com.sky.mapper.CategoryMapper;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.EmployeeMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 菜品、套餐、分类、员工名称的内存搜索索引
+ * 启动时从数据库全量构建，之后由各业务层的写操作在事务提交后增量维护，并通过redis发布订阅
+ * 通知其他节点按id从数据库重新读取这些记录；
+ * 名称模糊查询先在索引中得到id集合，再按主键回表，不再对整表做 like '%xx%' 扫描
+ */
+@Component
+@Slf4j
+public class NameSearchIndex implements ApplicationRunner, MessageListener {
+
+    /**
+     * 名称变更通知的频道，消息格式为 节点标识|索引类型|id,id,...
+     */
+    public static final String CHANGE_CHANNEL = "sky:search:changed";
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 索引命中的id超过该数量时，in查询已经不比like划算，退回数据库模糊查询
+     */
+    private static final int MAX_RESOLVED_IDS = 1000;
+
+    private final Map<IndexType, NGramIndex> indexes = new EnumMap<>(IndexType.class);
+
+    //索引构建完成前所有查询都退回数据库模糊查询
+    private volatile boolean ready = false;
+
+    //当前节点的标识，用于忽略自己发出的通知
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private SetmealMapper setmealMapper;
+    @Autowired
+    private CategoryMapper categoryMapper;
+    @Autowired
+    private EmployeeMapper employeeMapper;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    public NameSearchIndex() {
+        for (IndexType type : IndexType.values()) {
+            indexes.put(type, new NGramIndex());
+        }
+    }
+
+    /**
+     * 应用启动后全量构建索引
+     *
+     * @param args
+     */
+    public void run(ApplicationArguments args) {
+        log.info("开始构建名称搜索索引...");
+
+        Map<Long, String> names = new HashMap<>();
+        for (Dish dish : dishMapper.listAllNames()) {
+            names.put(dish.getId(), dish.getName());
+        }
+        indexes.get(IndexType.DISH).rebuild(names);
+
+        names = new HashMap<>();
+        for (Setmeal setmeal : setmealMapper.listAllNames()) {
+            names.put(setmeal.getId(), setmeal.getName());
+        }
+        indexes.get(IndexType.SETMEAL).rebuild(names);
+
+        names = new HashMap<>();
+        for (Category category : categoryMapper.listAllNames()) {
+            names.put(category.getId(), category.getName());
+        }
+        indexes.get(IndexType.CATEGORY).rebuild(names);
+
+        names = new HashMap<>();
+        for (Employee employee : employeeMapper.listAllNames()) {
+            names.put(employee.getId(), employee.getName());
+        }
+        indexes.get(IndexType.EMPLOYEE).rebuild(names);
+
+        ready = true;
+        log.info("名称搜索索引构建完成，菜品{}条，套餐{}条，分类{}条，员工{}条",
+                indexes.get(IndexType.DISH).size(),
+                indexes.get(IndexType.SETMEAL).size(),
+                indexes.get(IndexType.CATEGORY).size(),
+                indexes.get(IndexType.EMPLOYEE).size());
+    }
+
+    /**
+     * 将名称模糊查询转换为id集合，语义与 like '%name%' 一致，不按拼音首字母匹配
+     *
+     * @param type
+     * @param name
+     * @return 匹配的id，按相关度排序；返回null表示不使用索引（无查询条件、索引未就绪或命中过多），应按原方式查询数据库
+     */
+    public List<Long> resolve(IndexType type, String name) {
+        if (name == null || name.isEmpty() || !ready) {
+            return null;
+        }
+        List<Long> ids = indexes.get(type).search(name, false);
+        return ids.size() > MAX_RESOLVED_IDS ? null : ids;
+    }
+
+    /**
+     * 名称联想提示，除名称外也按拼音首字母匹配
+     *
+     * @param type
+     * @param keyword
+     * @param limit
+     * @return
+     */
+    public List<String> suggest(IndexType type, String keyword, int limit) {
+        return indexes.get(type).suggest(keyword, true, limit);
+    }
+
+    /**
+     * 记录新增或改名后更新索引并通知其他节点，在事务提交后执行
+     *
+     * @param type
+     * @param id
+     * @param name
+     */
+    public void put(IndexType type, Long id, String name) {
+        if (name == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            indexes.get(type).put(id, name);
+            publish(type, Collections.singletonList(id));
+        });
+    }
+
+    /**
+     * 记录删除后更新索引并通知其他节点，在事务提交后执行
+     *
+     * @param type
+     * @param ids
+     */
+    public void remove(IndexType type, Collection<Long> ids) {
+        List<Long> removed = new ArrayList<>(ids);
+        TransactionUtil.afterCommit(() -> {
+            NGramIndex index = indexes.get(type);
+            for (Long id : removed) {
+                index.remove(id);
+            }
+            publish(type, removed);
+        });
+    }
+
+    /**
+     * 接收其他节点的变更通知，按id从数据库读取最新名称：记录存在时更新，不存在时删除
+     * 不使用消息中的名称，多个节点先后修改同一条记录时，无论通知的到达顺序如何都以数据库为准
+     *
+     * @param message
+     * @param pattern
+     */
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0]) || !ready) {
+            return;
+        }
+        IndexType type;
+        List<Long> ids = new ArrayList<>();
+        try {
+            type = IndexType.valueOf(parts[1]);
+            for (String id : parts[2].split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("无法识别的名称变更通知：{}", body);
+            return;
+        }
+
+        Map<Long, String> names = listNames(type, ids);
+        NGramIndex index = indexes.get(type);
+        for (Long id : ids) {
+            String name = names.get(id);
+            if (name == null) {
+                index.remove(id);
+            } else {
+                index.put(id, name);
+            }
+        }
+    }
+
+    private void publish(IndexType type, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(nodeId).append(SEPARATOR).append(type.name()).append(SEPARATOR);
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(ids.get(i));
+        }
+        stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, sb.toString());
+    }
+
+    private Map<Long, String> listNames(IndexType type, List<Long> ids) {
+        Map<Long, String> names = new HashMap<>();
+        switch (type) {
+            case DISH:
+                for (Dish dish : dishMapper.listNamesByIds(ids)) {
+                    names.put(dish.getId(), dish.getName());
+                }
+                break;
+            case SETMEAL:
+                for (Setmeal setmeal : setmealMapper.listNamesByIds(ids)) {
+                    names.put(setmeal.getId(), setmeal.getName());
+                }
+                break;
+            case CATEGORY:
+                for (Category category : categoryMapper.listNamesByIds(ids)) {
+                    names.put(category.getId(), category.getName());
+                }
+                break;
+            case EMPLOYEE:
+                for (Employee employee : employeeMapper.listNamesByIds(ids)) {
+                    names.put(employee.getId(), employee.getName());
+                }
+                break;
+            default:
+                break;
+        }
+        return names;
+    }
+}
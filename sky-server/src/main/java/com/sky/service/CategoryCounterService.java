@@ -0,0 +1,62 @@
+package com.sky.service;
+
+import com.sky.entity.CategoryCounter;
+import com.sky.vo.DishOverViewVO;
+import com.sky.vo.SetmealOverViewVO;
+
+import java.util.List;
+
+public interface CategoryCounterService {
+
+    /**
+     * 新增菜品后累加计数
+     * @param categoryId
+     * @param status
+     */
+    void dishAdded(Long categoryId, Integer status);
+
+    /**
+     * 菜品分类或状态变化后调整计数
+     * @param oldCategoryId
+     * @param oldStatus
+     * @param newCategoryId
+     * @param newStatus
+     */
+    void dishChanged(Long oldCategoryId, Integer oldStatus, Long newCategoryId, Integer newStatus);
+
+    /**
+     * 批量删除菜品后扣减计数
+     * @param removed 每个分类被删除的菜品数量
+     */
+    void dishesRemoved(List<CategoryCounter> removed);
+
+    /**
+     * 查询分类的计数，没有记录时各项为0
+     * @param categoryId
+     * @return
+     */
+    CategoryCounter getByCategoryId(Long categoryId);
+
+    /**
+     * 删除分类的计数
+     * @param categoryId
+     */
+    void deleteByCategoryId(Long categoryId);
+
+    /**
+     * 菜品总览
+     * @return
+     */
+    DishOverViewVO getDishOverView();
+
+    /**
+     * 套餐总览
+     * @return
+     */
+    SetmealOverViewVO getSetmealOverView();
+
+    /**
+     * 按菜品表和套餐表重建所有计数
+     */
+    void rebuild();
+}
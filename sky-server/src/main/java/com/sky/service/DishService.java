@@ -40,6 +40,14 @@ public interface DishService {
      */
     DishVO getByIdWithFlavor(Long id);
 
+    /**
+     * 根据id批量查询菜品和对应的口味数据
+     *
+     * @param ids
+     * @return
+     */
+    List<DishVO> getByIdsWithFlavor(List<Long> ids);
+
     /**
      * 根据id修改菜品基本信息和对应的口味信息
      *
@@ -47,4 +55,12 @@ public interface DishService {
      */
     void updateWithFlavor(DishDTO dishDTO);
 
+    /**
+     * 根据分类id查询起售中的菜品和对应的口味数据
+     *
+     * @param categoryId
+     * @return
+     */
+    List<DishVO> listWithFlavor(Long categoryId);
+
 }
\ No newline at end of file
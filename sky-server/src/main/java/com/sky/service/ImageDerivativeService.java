@@ -0,0 +1,44 @@
+package com.sky.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface ImageDerivativeService {
+
+    /**
+     * 为新上传的图片登记生成缩略图的任务，并尝试立即处理
+     * @param objectName 原图的对象名称
+     */
+    void enqueue(String objectName);
+
+    /**
+     * 处理队列中待处理的任务，用于补上立即处理时线程池已满或节点重启遗留的任务
+     * @return 提交处理的任务数量
+     */
+    int dispatchPending();
+
+    /**
+     * 处理中超时的任务重新放回队列
+     * @return 放回的任务数量
+     */
+    int recoverStale();
+
+    /**
+     * 查询已经生成缩略图的图片，只有这些图片可以返回缩略图地址
+     * @param urls 原图访问路径
+     * @return 缩略图已经生成的原图访问路径
+     */
+    Set<String> listReady(Collection<String> urls);
+
+    /**
+     * 为菜品中还没有任务的图片（生成缩略图功能上线前上传的图片）登记任务
+     * @return 登记的任务数量
+     */
+    int backfill();
+
+    /**
+     * 删除图片的任务和所有缩略图，原图被清理时调用
+     * @param objectName 原图的对象名称
+     */
+    void delete(String objectName);
+}
@@ -0,0 +1,44 @@
+package com.sky.service;
+
+import com.sky.dto.MultipartUploadInitDTO;
+import com.sky.vo.MultipartUploadVO;
+
+import java.io.InputStream;
+
+public interface MultipartUploadService {
+
+    /**
+     * 初始化分片上传；同一员工相同文件标识的未完成任务直接返回，用于断点续传
+     * @param multipartUploadInitDTO
+     * @return
+     */
+    MultipartUploadVO init(MultipartUploadInitDTO multipartUploadInitDTO);
+
+    /**
+     * 上传一个分片，已上传过的分片会被覆盖
+     * @param uploadId
+     * @param partNumber 从1开始
+     * @param inputStream
+     * @param size
+     */
+    void uploadPart(String uploadId, Integer partNumber, InputStream inputStream, long size);
+
+    /**
+     * 合并所有分片
+     * @param uploadId
+     * @return 文件访问路径
+     */
+    String complete(String uploadId);
+
+    /**
+     * 取消上传任务
+     * @param uploadId
+     */
+    void abort(String uploadId);
+
+    /**
+     * 取消已经过期的上传任务在对象存储中的分片上传，释放已上传的分片
+     * @return 取消的任务数
+     */
+    int abortExpired();
+}
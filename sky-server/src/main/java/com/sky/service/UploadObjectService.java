@@ -0,0 +1,33 @@
+package com.sky.service;
+
+import org.springframework.core.io.InputStreamSource;
+
+public interface UploadObjectService {
+
+    /**
+     * 上传文件，内容相同的文件已经存在时直接返回已有的访问路径，不再上传
+     * @param originalFilename 原始文件名，用于确定扩展名
+     * @param source 文件内容，会被读取两次：一次计算哈希，一次上传
+     * @param size 文件大小
+     * @return 文件访问路径
+     */
+    String upload(String originalFilename, InputStreamSource source, long size);
+
+    /**
+     * 增加文件的引用
+     * @param url
+     */
+    void retain(String url);
+
+    /**
+     * 减少文件的引用
+     * @param url
+     */
+    void release(String url);
+
+    /**
+     * 清理超过宽限期仍然没有引用的文件
+     * @return 清理的文件数量
+     */
+    int collectGarbage();
+}
@@ -0,0 +1,147 @@
+package com.sky.service.impl;
+
+import com.sky.constant.StatusConstant;
+import com.sky.entity.CategoryCounter;
+import com.sky.mapper.CategoryCounterMapper;
+import com.sky.service.CategoryCounterService;
+import com.sky.vo.DishOverViewVO;
+import com.sky.vo.SetmealOverViewVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 分类引用计数业务层
+ * 计数随菜品的写操作在同一事务中增量修改，删除分类前的校验和总览统计直接读取计数，不再扫描菜品表和套餐表
+ */
+@Service
+@Slf4j
+public class CategoryCounterServiceImpl implements CategoryCounterService {
+
+    @Autowired
+    private CategoryCounterMapper categoryCounterMapper;
+
+    /**
+     * 新增菜品后累加计数
+     * @param categoryId
+     * @param status
+     */
+    public void dishAdded(Long categoryId, Integer status) {
+        if (categoryId == null) {
+            return;
+        }
+        categoryCounterMapper.add(dishDelta(categoryId, status, 1));
+    }
+
+    /**
+     * 菜品分类或状态变化后调整计数：原分类原状态减1，新分类新状态加1
+     * @param oldCategoryId
+     * @param oldStatus
+     * @param newCategoryId
+     * @param newStatus
+     */
+    public void dishChanged(Long oldCategoryId, Integer oldStatus, Long newCategoryId, Integer newStatus) {
+        if (Objects.equals(oldCategoryId, newCategoryId) && isOnSale(oldStatus) == isOnSale(newStatus)) {
+            return;
+        }
+        if (oldCategoryId != null) {
+            categoryCounterMapper.add(dishDelta(oldCategoryId, oldStatus, -1));
+        }
+        if (newCategoryId != null) {
+            categoryCounterMapper.add(dishDelta(newCategoryId, newStatus, 1));
+        }
+    }
+
+    /**
+     * 批量删除菜品后扣减计数
+     * @param removed 每个分类被删除的菜品数量
+     */
+    public void dishesRemoved(List<CategoryCounter> removed) {
+        for (CategoryCounter counter : removed) {
+            categoryCounterMapper.add(CategoryCounter.builder()
+                    .categoryId(counter.getCategoryId())
+                    .dishOnSale(-counter.getDishOnSale())
+                    .dishOffSale(-counter.getDishOffSale())
+                    .build());
+        }
+    }
+
+    /**
+     * 查询分类的计数，没有记录时各项为0
+     * @param categoryId
+     * @return
+     */
+    public CategoryCounter getByCategoryId(Long categoryId) {
+        CategoryCounter counter = categoryCounterMapper.getByCategoryId(categoryId);
+        if (counter == null) {
+            counter = CategoryCounter.builder()
+                    .categoryId(categoryId)
+                    .dishOnSale(0)
+                    .dishOffSale(0)
+                    .setmealOnSale(0)
+                    .setmealOffSale(0)
+                    .build();
+        }
+        return counter;
+    }
+
+    /**
+     * 删除分类的计数
+     * @param categoryId
+     */
+    public void deleteByCategoryId(Long categoryId) {
+        categoryCounterMapper.deleteByCategoryId(categoryId);
+    }
+
+    /**
+     * 菜品总览
+     * @return
+     */
+    public DishOverViewVO getDishOverView() {
+        CategoryCounter sum = categoryCounterMapper.sum();
+        return DishOverViewVO.builder()
+                .sold(sum.getDishOnSale())
+                .discontinued(sum.getDishOffSale())
+                .build();
+    }
+
+    /**
+     * 套餐总览
+     * @return
+     */
+    public SetmealOverViewVO getSetmealOverView() {
+        CategoryCounter sum = categoryCounterMapper.sum();
+        return SetmealOverViewVO.builder()
+                .sold(sum.getSetmealOnSale())
+                .discontinued(sum.getSetmealOffSale())
+                .build();
+    }
+
+    /**
+     * 按菜品表和套餐表重建所有计数
+     */
+    @Transactional
+    public void rebuild() {
+        log.info("开始重建分类引用计数...");
+        categoryCounterMapper.resetAll();
+        categoryCounterMapper.rebuildDishCount();
+        categoryCounterMapper.rebuildSetmealCount();
+    }
+
+    private CategoryCounter dishDelta(Long categoryId, Integer status, int delta) {
+        boolean onSale = isOnSale(status);
+        return CategoryCounter.builder()
+                .categoryId(categoryId)
+                .dishOnSale(onSale ? delta : 0)
+                .dishOffSale(onSale ? 0 : delta)
+                .build();
+    }
+
+    private boolean isOnSale(Integer status) {
+        return StatusConstant.ENABLE.equals(status);
+    }
+}
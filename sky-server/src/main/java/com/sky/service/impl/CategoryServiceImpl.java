@@ -2,23 +2,30 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.CategoryTable;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.context.BaseContext;
 import com.sky.dto.CategoryDTO;
 import com.sky.dto.CategoryPageQueryDTO;
 import com.sky.entity.Category;
+import com.sky.entity.CategoryCounter;
 import com.sky.exception.DeletionNotAllowedException;
 import com.sky.mapper.CategoryMapper;
-import com.sky.mapper.DishMapper;
-import com.sky.mapper.SetmealMapper;
 import com.sky.result.PageResult;
+import com.sky.search.IndexType;
+import com.sky.search.NameSearchIndex;
+import com.sky.service.CategoryCounterService;
 import com.sky.service.CategoryService;
+import com.sky.utils.CursorUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -31,9 +38,11 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryMapper categoryMapper;
     @Autowired
-    private DishMapper dishMapper;
+    private CategoryCounterService categoryCounterService;
     @Autowired
-    private SetmealMapper setmealMapper;
+    private NameSearchIndex nameSearchIndex;
+    @Autowired
+    private CategoryTable categoryTable;
 
     /**
      * 新增分类
@@ -54,6 +63,8 @@ public class CategoryServiceImpl implements CategoryService {
 //        category.setUpdateUser(BaseContext.getCurrentId());
 
         categoryMapper.insert(category);
+        categoryTable.changed();
+        nameSearchIndex.put(IndexType.CATEGORY, category.getId(), category.getName());
     }
 
     /**
@@ -62,33 +73,77 @@ public class CategoryServiceImpl implements CategoryService {
      * @return
      */
     public PageResult pageQuery(CategoryPageQueryDTO categoryPageQueryDTO) {
+        //名称条件先走内存索引，得到候选id后按主键查询
+        List<Long> ids = nameSearchIndex.resolve(IndexType.CATEGORY, categoryPageQueryDTO.getName());
+        if (ids != null && ids.isEmpty()) {
+            return new PageResult(0, new ArrayList<>());
+        }
+        categoryPageQueryDTO.setIds(ids);
+
+        if (Boolean.TRUE.equals(categoryPageQueryDTO.getCursorMode())) {
+            return pageQueryByCursor(categoryPageQueryDTO);
+        }
         PageHelper.startPage(categoryPageQueryDTO.getPage(),categoryPageQueryDTO.getPageSize());
         //下一条sql进行分页，自动加入limit关键字分页
         Page<Category> page = categoryMapper.pageQuery(categoryPageQueryDTO);
         return new PageResult(page.getTotal(), page.getResult());
     }
 
+    /**
+     * 游标分页查询，按(sort, create_time, id)升序定位下一页，总记录数按需统计
+     * @param categoryPageQueryDTO
+     * @return
+     */
+    private PageResult pageQueryByCursor(CategoryPageQueryDTO categoryPageQueryDTO) {
+        categoryPageQueryDTO.setPageSize(CursorUtil.pageSize(categoryPageQueryDTO.getPageSize()));
+        categoryPageQueryDTO.setLastSort(null);
+        categoryPageQueryDTO.setLastCreateTime(null);
+        categoryPageQueryDTO.setLastId(null);
+        if (categoryPageQueryDTO.getCursor() != null && !categoryPageQueryDTO.getCursor().isEmpty()) {
+            String[] values = CursorUtil.decode(categoryPageQueryDTO.getCursor(), 3);
+            categoryPageQueryDTO.setLastSort(CursorUtil.parseLong(values[0]).intValue());
+            categoryPageQueryDTO.setLastCreateTime(CursorUtil.parseTime(values[1]));
+            categoryPageQueryDTO.setLastId(CursorUtil.parseLong(values[2]));
+        }
+
+        List<Category> records = categoryMapper.pageQueryByCursor(categoryPageQueryDTO);
+        long total = Boolean.TRUE.equals(categoryPageQueryDTO.getWithTotal())
+                ? categoryMapper.countPageQuery(categoryPageQueryDTO) : -1;
+
+        PageResult pageResult = new PageResult(total, records);
+        if (!records.isEmpty() && records.size() == categoryPageQueryDTO.getPageSize()) {
+            Category last = records.get(records.size() - 1);
+            pageResult.setNextCursor(CursorUtil.encode(last.getSort(), last.getCreateTime(), last.getId()));
+        }
+        return pageResult;
+    }
+
     /**
      * 根据id删除分类
      * @param id
      */
+    @Transactional
     public void deleteById(Long id) {
+        //读取分类引用计数，不再扫描菜品表和套餐表
+        CategoryCounter counter = categoryCounterService.getByCategoryId(id);
+
         //查询当前分类是否关联了菜品，如果关联了就抛出业务异常
-        Integer count = dishMapper.countByCategoryId(id);
-        if(count > 0){
+        if(counter.getDishOnSale() + counter.getDishOffSale() > 0){
             //当前分类下有菜品，不能删除
             throw new DeletionNotAllowedException(MessageConstant.CATEGORY_BE_RELATED_BY_DISH);
         }
 
         //查询当前分类是否关联了套餐，如果关联了就抛出业务异常
-        count = setmealMapper.countByCategoryId(id);
-        if(count > 0){
+        if(counter.getSetmealOnSale() + counter.getSetmealOffSale() > 0){
             //当前分类下有菜品，不能删除
             throw new DeletionNotAllowedException(MessageConstant.CATEGORY_BE_RELATED_BY_SETMEAL);
         }
 
-        //删除分类数据
+        //删除分类数据和对应的计数
         categoryMapper.deleteById(id);
+        categoryCounterService.deleteByCategoryId(id);
+        categoryTable.changed();
+        nameSearchIndex.remove(IndexType.CATEGORY, Collections.singletonList(id));
     }
 
     /**
@@ -104,6 +159,8 @@ public class CategoryServiceImpl implements CategoryService {
 //        category.setUpdateUser(BaseContext.getCurrentId());
 
         categoryMapper.update(category);
+        categoryTable.changed();
+        nameSearchIndex.put(IndexType.CATEGORY, category.getId(), category.getName());
     }
 
     /**
@@ -119,14 +176,15 @@ public class CategoryServiceImpl implements CategoryService {
                 .updateUser(BaseContext.getCurrentId())
                 .build();
         categoryMapper.update(category);
+        categoryTable.changed();
     }
 
     /**
-     * 根据类型查询分类
+     * 根据类型查询分类，直接读取内存中的分类表
      * @param type
      * @return
      */
     public List<Category> list(Integer type) {
-        return categoryMapper.list(type);
+        return categoryTable.list(type);
     }
 }
@@ -3,18 +3,29 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.TwoLevelCache;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
+import com.sky.entity.CategoryCounter;
 import com.sky.entity.Dish;
 import com.sky.entity.DishFlavor;
 import com.sky.exception.DeletionNotAllowedException;
 import com.sky.mapper.DishFlavorMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealDishMapper;
+import com.sky.properties.ImageProperties;
 import com.sky.result.PageResult;
+import com.sky.search.IndexType;
+import com.sky.search.NameSearchIndex;
+import com.sky.service.CategoryCounterService;
 import com.sky.service.DishService;
+import com.sky.service.ImageDerivativeService;
+import com.sky.service.UploadObjectService;
+import com.sky.utils.CursorUtil;
+import com.sky.utils.ImageVariantUtil;
+import com.sky.utils.TransactionUtil;
 import com.sky.vo.DishVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -22,7 +33,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -32,6 +52,18 @@ public class DishServiceImpl implements DishService {
     private DishMapper dishMapper;
     @Autowired
     private DishFlavorMapper dishFlavorMapper;
+    @Autowired
+    private TwoLevelCache<List<DishVO>> dishCache;
+    @Autowired
+    private NameSearchIndex nameSearchIndex;
+    @Autowired
+    private CategoryCounterService categoryCounterService;
+    @Autowired
+    private UploadObjectService uploadObjectService;
+    @Autowired
+    private ImageProperties imageProperties;
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
 
     /**
      * 新增菜品和对应的口味
@@ -50,6 +82,11 @@ public class DishServiceImpl implements DishService {
         //获取insert语句生成的主键值
         Long dishId = dish.getId();
 
+        //累加分类引用计数
+        categoryCounterService.dishAdded(dish.getCategoryId(), dish.getStatus());
+        //图片引用计数
+        uploadObjectService.retain(dish.getImage());
+
         List<DishFlavor> flavors = dishDTO.getFlavors();
         if (flavors != null && flavors.size() > 0) {
             flavors.forEach(dishFlavor -> {
@@ -58,6 +95,10 @@ public class DishServiceImpl implements DishService {
             //向口味表插入n条数据
             dishFlavorMapper.insertBatch(flavors);
         }
+
+        //事务提交后清理该分类下的菜品缓存，并更新名称索引
+        cleanCache(Collections.singleton(dish.getCategoryId()));
+        nameSearchIndex.put(IndexType.DISH, dishId, dish.getName());
     }
 
     /**
@@ -67,13 +108,59 @@ public class DishServiceImpl implements DishService {
      * @return
      */
     public PageResult pageQuery(DishPageQueryDTO dishPageQueryDTO) {
+        //名称条件先走内存索引，得到候选id后按主键查询
+        List<Long> ids = nameSearchIndex.resolve(IndexType.DISH, dishPageQueryDTO.getName());
+        if (ids != null && ids.isEmpty()) {
+            return new PageResult(0, new ArrayList<>());
+        }
+        dishPageQueryDTO.setIds(ids);
+
+        if (Boolean.TRUE.equals(dishPageQueryDTO.getCursorMode())) {
+            return pageQueryByCursor(dishPageQueryDTO);
+        }
         PageHelper.startPage(dishPageQueryDTO.getPage(), dishPageQueryDTO.getPageSize());
         Page<DishVO> page = dishMapper.pageQuery(dishPageQueryDTO);
+        fillImageVariants(page.getResult());
         return new PageResult(page.getTotal(), page.getResult());
     }
 
+    /**
+     * 菜品游标分页查询，不使用offset，深分页与第一页耗时相同；总记录数按需统计
+     *
+     * @param dishPageQueryDTO
+     * @return
+     */
+    private PageResult pageQueryByCursor(DishPageQueryDTO dishPageQueryDTO) {
+        dishPageQueryDTO.setPageSize(CursorUtil.pageSize(dishPageQueryDTO.getPageSize()));
+        dishPageQueryDTO.setLastCreateTime(null);
+        dishPageQueryDTO.setLastId(null);
+        if (dishPageQueryDTO.getCursor() != null && !dishPageQueryDTO.getCursor().isEmpty()) {
+            String[] values = CursorUtil.decode(dishPageQueryDTO.getCursor(), 2);
+            dishPageQueryDTO.setLastCreateTime(CursorUtil.parseTime(values[0]));
+            dishPageQueryDTO.setLastId(CursorUtil.parseLong(values[1]));
+        }
+
+        List<DishVO> records = dishMapper.pageQueryByCursor(dishPageQueryDTO);
+        fillImageVariants(records);
+        long total = Boolean.TRUE.equals(dishPageQueryDTO.getWithTotal())
+                ? dishMapper.countPageQuery(dishPageQueryDTO) : -1;
+
+        PageResult pageResult = new PageResult(total, records);
+        if (!records.isEmpty() && records.size() == dishPageQueryDTO.getPageSize()) {
+            DishVO last = records.get(records.size() - 1);
+            pageResult.setNextCursor(CursorUtil.encode(last.getCreateTime(), last.getId()));
+        }
+        return pageResult;
+    }
+
     @Autowired
     private SetmealDishMapper setmealDishMapper;
+
+    /**
+     * 批量删除时单条in语句最多包含的id个数
+     */
+    private static final int DELETE_BATCH_SIZE = 500;
+
     /**
      * 菜品批量删除
      *
@@ -81,28 +168,53 @@ public class DishServiceImpl implements DishService {
      */
     @Transactional//事务
     public void deleteBatch(List<Long> ids) {
-        //判断当前菜品是否能够删除---是否存在起售中的菜品？？
-        for (Long id : ids) {
-            Dish dish = dishMapper.getById(id);
-            if (dish.getStatus() == StatusConstant.ENABLE) {
+        //按固定大小分批，每批的语句数量固定，不随id个数增长
+        List<List<Long>> batches = partition(new ArrayList<>(new LinkedHashSet<>(ids)), DELETE_BATCH_SIZE);
+
+        Set<Long> categoryIds = new HashSet<>();
+        List<CategoryCounter> removed = new ArrayList<>();
+        List<String> images = new ArrayList<>();
+        for (List<Long> batch : batches) {
+            //判断当前菜品是否能够删除---是否存在起售中的菜品？？
+            Integer onSaleCount = dishMapper.countByIdsAndStatus(batch, StatusConstant.ENABLE);
+            if (onSaleCount > 0) {
                 //当前菜品处于起售中，不能删除
                 throw new DeletionNotAllowedException(MessageConstant.DISH_ON_SALE);
             }
-        }
 
-        //判断当前菜品是否能够删除---是否被套餐关联了？？
-        List<Long> setmealIds = setmealDishMapper.getSetmealIdsByDishIds(ids);
-        if (setmealIds != null && setmealIds.size() > 0) {
-            //当前菜品被套餐关联了，不能删除
-            throw new DeletionNotAllowedException(MessageConstant.DISH_BE_RELATED_BY_SETMEAL);
+            //判断当前菜品是否能够删除---是否被套餐关联了？？
+            List<Long> setmealIds = setmealDishMapper.getSetmealIdsByDishIds(batch);
+            if (setmealIds != null && setmealIds.size() > 0) {
+                //当前菜品被套餐关联了，不能删除
+                throw new DeletionNotAllowedException(MessageConstant.DISH_BE_RELATED_BY_SETMEAL);
+            }
+
+            //按分类统计被删除的菜品，用于清理缓存和扣减分类引用计数
+            for (CategoryCounter counter : dishMapper.countGroupByCategory(batch)) {
+                categoryIds.add(counter.getCategoryId());
+                removed.add(counter);
+            }
+
+            //记录被删除菜品的图片，用于扣减图片引用计数
+            for (Dish dish : dishMapper.getByIds(batch)) {
+                images.add(dish.getImage());
+            }
         }
 
-        //删除菜品表中的菜品数据
-        for (Long id : ids) {
-            dishMapper.deleteById(id);
+        for (List<Long> batch : batches) {
+            //删除菜品表中的菜品数据
+            dishMapper.deleteByIds(batch);
             //删除菜品关联的口味数据
-            dishFlavorMapper.deleteByDishId(id);
+            dishFlavorMapper.deleteByDishIds(batch);
         }
+        categoryCounterService.dishesRemoved(removed);
+        for (String image : images) {
+            uploadObjectService.release(image);
+        }
+
+        //事务提交后清理被删除菜品所属分类的缓存，并更新名称索引
+        cleanCache(categoryIds);
+        nameSearchIndex.remove(IndexType.DISH, ids);
     }
 
     /**
@@ -122,34 +234,236 @@ public class DishServiceImpl implements DishService {
         DishVO dishVO = new DishVO();
         BeanUtils.copyProperties(dish, dishVO);
         dishVO.setFlavors(dishFlavors);
+        fillImageVariants(Collections.singletonList(dishVO));
 
         return dishVO;
     }
 
+    /**
+     * 根据id批量查询菜品和对应的口味数据
+     * 菜品和口味各用一条in查询取出，再在内存中按菜品id分组，结果按传入的id顺序返回
+     *
+     * @param ids
+     * @return
+     */
+    public List<DishVO> getByIdsWithFlavor(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Dish> dishMap = new HashMap<>();
+        for (Dish dish : dishMapper.getByIds(ids)) {
+            dishMap.put(dish.getId(), dish);
+        }
+
+        List<Dish> dishList = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Dish dish = dishMap.get(id);
+            if (dish != null) {
+                dishList.add(dish);
+            }
+        }
+        return assembleWithFlavor(dishList);
+    }
+
     /**
      * 根据id修改菜品基本信息和对应的口味信息
      *
      * @param dishDTO
      */
+    @Transactional
     public void updateWithFlavor(DishDTO dishDTO) {
         Dish dish = new Dish();
         BeanUtils.copyProperties(dishDTO, dish);
 
+        //记录修改前的分类，菜品换了分类时新旧两个分类的缓存都要清理
+        Set<Long> categoryIds = new HashSet<>();
+        Dish oldDish = dishMapper.getById(dishDTO.getId());
+        if (oldDish != null) {
+            categoryIds.add(oldDish.getCategoryId());
+        }
+        if (dishDTO.getCategoryId() != null) {
+            categoryIds.add(dishDTO.getCategoryId());
+        }
+
         //修改菜品表基本信息
         dishMapper.update(dish);
 
-        //删除原有的口味数据
-        dishFlavorMapper.deleteByDishId(dishDTO.getId());
+        //分类或起售状态变化时调整分类引用计数
+        if (oldDish != null) {
+            categoryCounterService.dishChanged(oldDish.getCategoryId(), oldDish.getStatus(),
+                    dish.getCategoryId() != null ? dish.getCategoryId() : oldDish.getCategoryId(),
+                    dish.getStatus() != null ? dish.getStatus() : oldDish.getStatus());
+        }
 
-        //重新插入口味数据
-        List<DishFlavor> flavors = dishDTO.getFlavors();
-        if (flavors != null && flavors.size() > 0) {
-            flavors.forEach(dishFlavor -> {
-                dishFlavor.setDishId(dishDTO.getId());
-            });
-            //向口味表插入n条数据
-            dishFlavorMapper.insertBatch(flavors);
+        //更换了图片时调整新旧图片的引用计数
+        if (oldDish != null && dish.getImage() != null && !dish.getImage().equals(oldDish.getImage())) {
+            uploadObjectService.release(oldDish.getImage());
+            uploadObjectService.retain(dish.getImage());
+        }
+
+        //与原有口味比对，只执行需要的增、改、删
+        syncFlavors(dishDTO.getId(), dishDTO.getFlavors());
+
+        cleanCache(categoryIds);
+        nameSearchIndex.put(IndexType.DISH, dish.getId(), dish.getName());
+    }
+
+    /**
+     * 同步菜品的口味数据
+     * 以口味名称为依据与数据库中的口味比对：名称相同且值相同的不动，值变化的批量修改，
+     * 新出现的批量插入，不再存在的批量删除；数据库中同名的重复口味只保留一条，其余删除；
+     * 口味完全没变时不会写口味表
+     *
+     * @param dishId
+     * @param flavors
+     */
+    private void syncFlavors(Long dishId, List<DishFlavor> flavors) {
+        Map<String, DishFlavor> existing = new HashMap<>();
+        List<Long> toDelete = new ArrayList<>();
+        for (DishFlavor flavor : dishFlavorMapper.getByDishId(dishId)) {
+            DishFlavor duplicate = existing.putIfAbsent(flavor.getName(), flavor);
+            if (duplicate != null) {
+                toDelete.add(flavor.getId());
+            }
+        }
+
+        List<DishFlavor> toInsert = new ArrayList<>();
+        List<DishFlavor> toUpdate = new ArrayList<>();
+        if (flavors != null) {
+            for (DishFlavor flavor : flavors) {
+                DishFlavor old = existing.remove(flavor.getName());
+                if (old == null) {
+                    flavor.setDishId(dishId);
+                    toInsert.add(flavor);
+                } else if (!Objects.equals(old.getValue(), flavor.getValue())) {
+                    old.setValue(flavor.getValue());
+                    toUpdate.add(old);
+                }
+            }
+        }
+
+        //剩下的是已经被移除的口味
+        for (DishFlavor flavor : existing.values()) {
+            toDelete.add(flavor.getId());
+        }
+
+        if (!toDelete.isEmpty()) {
+            dishFlavorMapper.deleteByIds(toDelete);
+        }
+        if (!toUpdate.isEmpty()) {
+            dishFlavorMapper.updateBatch(toUpdate);
+        }
+        if (!toInsert.isEmpty()) {
+            dishFlavorMapper.insertBatch(toInsert);
+        }
+    }
+
+    /**
+     * 根据分类id查询起售中的菜品和对应的口味数据，依次从本地缓存、redis中读取，都没有时查询数据库
+     *
+     * @param categoryId
+     * @return
+     */
+    public List<DishVO> listWithFlavor(Long categoryId) {
+        return dishCache.get(String.valueOf(categoryId), () -> {
+            Dish query = Dish.builder()
+                    .categoryId(categoryId)
+                    .status(StatusConstant.ENABLE)
+                    .build();
+            return assembleWithFlavor(dishMapper.list(query));
+        });
+    }
+
+    /**
+     * 为一组菜品批量查询口味并封装为VO，只发出一条口味查询
+     *
+     * @param dishList
+     * @return
+     */
+    private List<DishVO> assembleWithFlavor(List<Dish> dishList) {
+        List<DishVO> dishVOList = new ArrayList<>(dishList.size());
+        if (dishList.isEmpty()) {
+            return dishVOList;
+        }
+
+        List<Long> dishIds = new ArrayList<>(dishList.size());
+        for (Dish dish : dishList) {
+            dishIds.add(dish.getId());
+        }
+
+        //按菜品id对口味分组
+        Map<Long, List<DishFlavor>> flavorMap = new HashMap<>();
+        for (DishFlavor flavor : dishFlavorMapper.getByDishIds(dishIds)) {
+            flavorMap.computeIfAbsent(flavor.getDishId(), k -> new ArrayList<>()).add(flavor);
+        }
+
+        for (Dish dish : dishList) {
+            DishVO dishVO = new DishVO();
+            BeanUtils.copyProperties(dish, dishVO);
+            dishVO.setFlavors(flavorMap.getOrDefault(dish.getId(), new ArrayList<>()));
+            dishVOList.add(dishVO);
+        }
+        fillImageVariants(dishVOList);
+        return dishVOList;
+    }
+
+    /**
+     * 按缩略图命名规则填充各尺寸图片的访问路径，只填充缩略图已经生成的图片
+     *
+     * @param dishVOList
+     */
+    private void fillImageVariants(List<DishVO> dishVOList) {
+        List<String> images = new ArrayList<>(dishVOList.size());
+        for (DishVO dishVO : dishVOList) {
+            if (dishVO.getImage() != null) {
+                images.add(dishVO.getImage());
+            }
+        }
+        if (images.isEmpty()) {
+            return;
+        }
+        Set<String> ready = imageDerivativeService.listReady(images);
+        for (DishVO dishVO : dishVOList) {
+            if (ready.contains(dishVO.getImage())) {
+                dishVO.setImageVariants(ImageVariantUtil.variants(dishVO.getImage(), imageProperties.getWidths()));
+            }
+        }
+    }
+
+    /**
+     * 清理指定分类的菜品缓存
+     * 存在事务时推迟到事务提交之后执行，避免读请求在提交前用旧数据重新填充缓存；回滚时缓存保持不变
+     *
+     * @param categoryIds
+     */
+    private void cleanCache(Collection<Long> categoryIds) {
+        List<String> keys = new ArrayList<>();
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                keys.add(String.valueOf(categoryId));
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        TransactionUtil.afterCommit(() -> dishCache.evict(keys));
+    }
+
+    /**
+     * 将id列表按固定大小切分
+     *
+     * @param ids
+     * @param size
+     * @return
+     */
+    private static List<List<Long>> partition(List<Long> ids, int size) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += size) {
+            batches.add(ids.subList(i, Math.min(i + size, ids.size())));
         }
+        return batches;
     }
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.EmployeePrincipalCache;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.PasswordConstant;
 import com.sky.constant.StatusConstant;
@@ -15,7 +16,10 @@ import com.sky.exception.AccountNotFoundException;
 import com.sky.exception.PasswordErrorException;
 import com.sky.mapper.EmployeeMapper;
 import com.sky.result.PageResult;
+import com.sky.search.IndexType;
+import com.sky.search.NameSearchIndex;
 import com.sky.service.EmployeeService;
+import com.sky.utils.CursorUtil;
 import lombok.val;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +27,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.DigestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -32,6 +37,12 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Autowired
     private EmployeeMapper employeeMapper;
 
+    @Autowired
+    private NameSearchIndex nameSearchIndex;
+
+    @Autowired
+    private EmployeePrincipalCache employeePrincipalCache;
+
     /**
      * 员工登录
      *
@@ -96,6 +107,7 @@ public class EmployeeServiceImpl implements EmployeeService {
 
         // 最后调用mapper层完成对数据库的操作
         employeeMapper.insert(employee);
+        nameSearchIndex.put(IndexType.EMPLOYEE, employee.getId(), employee.getName());
     }
 
     /**
@@ -105,6 +117,17 @@ public class EmployeeServiceImpl implements EmployeeService {
      * @return
      */
     public PageResult pageQuery(EmployeePageQueryDTO employeePageQueryDTO) {
+        // 0. 名称条件先走内存索引，得到候选id后按主键查询；游标分页模式单独处理，不经过PageHelper
+        List<Long> ids = nameSearchIndex.resolve(IndexType.EMPLOYEE, employeePageQueryDTO.getName());
+        if (ids != null && ids.isEmpty()) {
+            return new PageResult(0, new ArrayList<>());
+        }
+        employeePageQueryDTO.setIds(ids);
+
+        if (Boolean.TRUE.equals(employeePageQueryDTO.getCursorMode())) {
+            return pageQueryByCursor(employeePageQueryDTO);
+        }
+
         // 1. 设置分页参数
         // 调用PageHelper的静态方法startPage，开启分页功能。
         // PageHelper会通过线程局部变量（ThreadLocal）来存储分页参数。
@@ -125,6 +148,35 @@ public class EmployeeServiceImpl implements EmployeeService {
         return new PageResult(total, records);
     }
 
+    /**
+     * 游标分页查询
+     * 按(create_time, id)定位下一页，不使用offset，深分页与第一页耗时相同；总记录数按需统计
+     *
+     * @param employeePageQueryDTO
+     * @return
+     */
+    private PageResult pageQueryByCursor(EmployeePageQueryDTO employeePageQueryDTO) {
+        employeePageQueryDTO.setPageSize(CursorUtil.pageSize(employeePageQueryDTO.getPageSize()));
+        employeePageQueryDTO.setLastCreateTime(null);
+        employeePageQueryDTO.setLastId(null);
+        if (employeePageQueryDTO.getCursor() != null && !employeePageQueryDTO.getCursor().isEmpty()) {
+            String[] values = CursorUtil.decode(employeePageQueryDTO.getCursor(), 2);
+            employeePageQueryDTO.setLastCreateTime(CursorUtil.parseTime(values[0]));
+            employeePageQueryDTO.setLastId(CursorUtil.parseLong(values[1]));
+        }
+
+        List<Employee> records = employeeMapper.pageQueryByCursor(employeePageQueryDTO);
+        long total = Boolean.TRUE.equals(employeePageQueryDTO.getWithTotal())
+                ? employeeMapper.countPageQuery(employeePageQueryDTO) : -1;
+
+        PageResult pageResult = new PageResult(total, records);
+        if (!records.isEmpty() && records.size() == employeePageQueryDTO.getPageSize()) {
+            Employee last = records.get(records.size() - 1);
+            pageResult.setNextCursor(CursorUtil.encode(last.getCreateTime(), last.getId()));
+        }
+        return pageResult;
+    }
+
     /**
      * 启用禁用员工账号
      *
@@ -138,6 +190,8 @@ public class EmployeeServiceImpl implements EmployeeService {
                 .build();
 
         employeeMapper.update(employee);
+        // 禁用后拦截器立即拒绝该员工的令牌
+        employeePrincipalCache.invalidate(id);
     }
 
     /**
@@ -184,5 +238,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         // employeeMapper.update 会根据传入的employee对象的ID（ID也通过属性拷贝设置好了），
         // 去更新数据库中对应记录的其他字段。
         employeeMapper.update(employee);
+        nameSearchIndex.put(IndexType.EMPLOYEE, employee.getId(), employee.getName());
+        employeePrincipalCache.invalidate(employee.getId());
     }
 }
@@ -0,0 +1,241 @@
+package com.sky.service.impl;
+
+import com.sky.cache.TwoLevelCache;
+import com.sky.entity.Dish;
+import com.sky.entity.ImageTask;
+import com.sky.executor.BoundedExecutor;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.ImageTaskMapper;
+import com.sky.properties.ImageProperties;
+import com.sky.service.ImageDerivativeService;
+import com.sky.storage.ObjectStorage;
+import com.sky.utils.ImageVariantGenerator;
+import com.sky.utils.ImageVariantUtil;
+import com.sky.vo.DishVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 图片缩略图生成
+ * 任务先写入image_task表再处理，处理节点重启后未完成的任务由定时任务重新放回队列，不会丢失；
+ * 解码和缩放在独立的有界线程池中执行，不占用请求线程和上传线程池；
+ * 只有任务完成的图片才对外提供缩略图地址，生成前和生成失败的图片只返回原图
+ */
+@Service
+@Slf4j
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    private static final int DISPATCH_BATCH_SIZE = 50;
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    @Autowired
+    private ImageTaskMapper imageTaskMapper;
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private ObjectStorage objectStorage;
+    @Autowired
+    private ImageProperties imageProperties;
+    @Autowired
+    private TwoLevelCache<List<DishVO>> dishCache;
+    @Autowired
+    @Qualifier("imageExecutor")
+    private BoundedExecutor imageExecutor;
+
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @PostConstruct
+    public void init() {
+        imageVariantGenerator = new ImageVariantGenerator(objectStorage, imageProperties);
+    }
+
+    /**
+     * 登记任务并尝试立即处理
+     *
+     * @param objectName
+     */
+    public void enqueue(String objectName) {
+        ImageTask imageTask = ImageTask.builder().objectName(objectName).build();
+        imageTaskMapper.insert(imageTask);
+        dispatch(imageTask);
+    }
+
+    /**
+     * 处理队列中待处理的任务，每次最多取一批，线程池已满时停止，剩下的等下一轮
+     * 失败后放回队列的任务也在下一轮才会重试
+     *
+     * @return
+     */
+    public int dispatchPending() {
+        int dispatched = 0;
+        for (ImageTask task : imageTaskMapper.listPending(DISPATCH_BATCH_SIZE)) {
+            if (!dispatch(task)) {
+                break;
+            }
+            dispatched++;
+        }
+        return dispatched;
+    }
+
+    /**
+     * 处理中超时的任务重新放回队列，已经用完尝试次数的标记为失败，
+     * 避免每次解码都会让节点崩溃的图片被反复认领
+     *
+     * @return
+     */
+    public int recoverStale() {
+        LocalDateTime before = LocalDateTime.now().minus(imageProperties.getStaleTimeout(), ChronoUnit.MILLIS);
+        int failed = imageTaskMapper.failStale(before, imageProperties.getMaxAttempts());
+        if (failed > 0) {
+            log.error("{}个图片处理任务超时且已达到最大尝试次数，标记为失败", failed);
+        }
+        int recovered = imageTaskMapper.resetStale(before);
+        if (recovered > 0) {
+            log.warn("{}个图片处理任务超时，重新放回队列", recovered);
+        }
+        return recovered;
+    }
+
+    /**
+     * 查询已经生成缩略图的图片
+     *
+     * @param urls
+     * @return
+     */
+    public Set<String> listReady(Collection<String> urls) {
+        Map<String, String> urlByObjectName = new HashMap<>();
+        for (String url : urls) {
+            String objectName = objectStorage.getObjectName(url);
+            if (objectName != null && ImageVariantUtil.isImage(objectName)) {
+                urlByObjectName.put(objectName, url);
+            }
+        }
+        Set<String> ready = new HashSet<>();
+        if (urlByObjectName.isEmpty()) {
+            return ready;
+        }
+        for (String objectName : imageTaskMapper.listDoneObjectNames(new ArrayList<>(urlByObjectName.keySet()))) {
+            ready.add(urlByObjectName.get(objectName));
+        }
+        return ready;
+    }
+
+    /**
+     * 为菜品中还没有任务的图片登记任务，由定时任务分批处理
+     *
+     * @return
+     */
+    public int backfill() {
+        int queued = 0;
+        long lastId = 0;
+        List<Dish> dishes;
+        do {
+            dishes = dishMapper.listImagesAfter(lastId, BACKFILL_BATCH_SIZE);
+            for (Dish dish : dishes) {
+                lastId = dish.getId();
+                String objectName = objectStorage.getObjectName(dish.getImage());
+                if (objectName == null || !ImageVariantUtil.isImage(objectName)
+                        || imageTaskMapper.countByObjectName(objectName) > 0 || !objectStorage.exists(objectName)) {
+                    continue;
+                }
+                queued += imageTaskMapper.insertIfAbsent(objectName);
+            }
+        } while (dishes.size() == BACKFILL_BATCH_SIZE);
+        if (queued > 0) {
+            log.info("为已有的菜品图片登记缩略图任务{}个", queued);
+        }
+        return queued;
+    }
+
+    /**
+     * 先删除任务，不再返回缩略图地址，再删除缩略图
+     *
+     * @param objectName
+     */
+    public void delete(String objectName) {
+        imageTaskMapper.deleteByObjectName(objectName);
+        for (Integer width : imageProperties.getWidths()) {
+            objectStorage.delete(ImageVariantUtil.variant(objectName, width));
+        }
+    }
+
+    /**
+     * 认领任务并提交到线程池
+     *
+     * @param task
+     * @return 线程池已满时返回false，任务放回队列
+     */
+    private boolean dispatch(ImageTask task) {
+        // 认领失败说明任务已经被其他节点或其他线程处理
+        if (imageTaskMapper.claim(task.getId()) == 0) {
+            return true;
+        }
+        int attempts = task.getAttempts() == null ? 1 : task.getAttempts() + 1;
+        AtomicBoolean rejected = new AtomicBoolean();
+        // 线程池拒绝时返回的future已经结束，whenComplete在当前线程中同步执行
+        imageExecutor.submit(() -> {
+            long start = System.currentTimeMillis();
+            imageVariantGenerator.generate(task.getObjectName());
+            log.info("生成缩略图：{}，耗时{}ms", task.getObjectName(), System.currentTimeMillis() - start);
+            return null;
+        }).whenComplete((result, ex) -> {
+            if (ex == null) {
+                imageTaskMapper.updateStatus(task.getId(), ImageTask.DONE, null);
+                evictDishCache(task.getObjectName());
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RejectedExecutionException) {
+                // 没有开始处理，放回队列且不计入尝试次数
+                rejected.set(true);
+                imageTaskMapper.unclaim(task.getId());
+            } else {
+                fail(task, attempts, cause);
+            }
+        });
+        return !rejected.get();
+    }
+
+    /**
+     * 缓存中的菜品列表可能在缩略图生成前加载，清理使用这张图片的菜品所在分类的缓存
+     *
+     * @param objectName
+     */
+    private void evictDishCache(String objectName) {
+        List<String> keys = new ArrayList<>();
+        for (Long categoryId : dishMapper.listCategoryIdsByImage(objectStorage.getUrl(objectName))) {
+            keys.add(String.valueOf(categoryId));
+        }
+        if (!keys.isEmpty()) {
+            dishCache.evict(keys);
+        }
+    }
+
+    private void fail(ImageTask task, int attempts, Throwable cause) {
+        String message = cause.getMessage() == null ? cause.getClass().getName() : cause.getMessage();
+        if (message.length() > 500) {
+            message = message.substring(0, 500);
+        }
+        // 无法识别或尺寸过大的图片重试也不会成功
+        int status = attempts >= imageProperties.getMaxAttempts() || cause instanceof IllegalArgumentException
+                ? ImageTask.FAILED : ImageTask.PENDING;
+        log.error("生成缩略图失败，第{}次：{}", attempts, task.getObjectName(), cause);
+        imageTaskMapper.updateStatus(task.getId(), status, message);
+    }
+}
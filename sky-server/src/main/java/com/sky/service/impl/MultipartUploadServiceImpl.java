@@ -0,0 +1,276 @@
+package com.sky.service.impl;
+
+import com.sky.constant.MessageConstant;
+import com.sky.context.BaseContext;
+import com.sky.dto.MultipartUploadInitDTO;
+import com.sky.exception.UploadFailedException;
+import com.sky.properties.UploadProperties;
+import com.sky.service.ImageDerivativeService;
+import com.sky.service.MultipartUploadService;
+import com.sky.storage.ObjectStorage;
+import com.sky.utils.ImageVariantUtil;
+import com.sky.vo.MultipartUploadVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片上传
+ * 上传任务的信息和已完成的分片保存在redis中，服务重启或前端中断后可以继续上传剩余的分片；
+ * 分片之间相互独立，前端可以并行上传多个分片；
+ * 任务按过期时间记录在有序集合中，过期后由定时任务取消对象存储中的分片上传，释放已上传的分片；
+ * 合并后的文件不进入按内容去重的索引：分片并行上传，不读回整个对象就无法得到内容哈希，
+ * 而且清理任务只按菜品和套餐的图片确认引用，分片上传的大文件（视频等）进入索引会被误删
+ */
+@Service
+@Slf4j
+public class MultipartUploadServiceImpl implements MultipartUploadService {
+
+    private static final String SESSION_KEY = "sky:upload:multipart:";
+    private static final String PARTS_SUFFIX = ":parts";
+    private static final String FILE_KEY = "sky:upload:multipart:file:";
+    private static final String EXPIRING_KEY = "sky:upload:multipart:expiring";
+    private static final String SEPARATOR = "|";
+    //任务过期后再等待一段时间才取消，避免和过期前开始的合并请求冲突
+    private static final long ABORT_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int ABORT_BATCH_SIZE = 100;
+
+    @Autowired
+    private ObjectStorage objectStorage;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private UploadProperties uploadProperties;
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    /**
+     * 初始化分片上传
+     *
+     * @param multipartUploadInitDTO
+     * @return
+     */
+    public MultipartUploadVO init(MultipartUploadInitDTO multipartUploadInitDTO) {
+        String fileName = multipartUploadInitDTO.getFileName();
+        Long fileSize = multipartUploadInitDTO.getFileSize();
+        if (fileName == null || fileSize == null || fileSize <= 0 || fileSize > uploadProperties.getMaxFileSize()) {
+            throw new UploadFailedException(MessageConstant.UPLOAD_FILE_INVALID);
+        }
+
+        // 1. 相同文件的未完成任务直接续传
+        String fileKey = multipartUploadInitDTO.getFileKey();
+        String fileKeyName = null;
+        if (fileKey != null && !fileKey.isEmpty()) {
+            fileKeyName = FILE_KEY + BaseContext.getCurrentId() + ":" + fileKey;
+            String existing = stringRedisTemplate.opsForValue().get(fileKeyName);
+            if (existing != null) {
+                Session session = loadSession(existing);
+                if (session != null && session.fileSize == fileSize) {
+                    log.info("续传分片上传任务：{}", existing);
+                    return toVO(existing, session);
+                }
+            }
+        }
+
+        // 2. 创建新任务
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot) : "";
+        String objectName = UUID.randomUUID().toString() + extension;
+        long partSize = uploadProperties.getPartSize();
+        int partCount = (int) ((fileSize + partSize - 1) / partSize);
+        String storageUploadId = objectStorage.initiateMultipart(objectName);
+
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        Map<String, String> fields = new HashMap<>();
+        fields.put("objectName", objectName);
+        fields.put("storageUploadId", storageUploadId);
+        fields.put("fileSize", String.valueOf(fileSize));
+        fields.put("partSize", String.valueOf(partSize));
+        fields.put("partCount", String.valueOf(partCount));
+        fields.put("owner", String.valueOf(BaseContext.getCurrentId()));
+        stringRedisTemplate.opsForHash().putAll(SESSION_KEY + uploadId, fields);
+        stringRedisTemplate.expire(SESSION_KEY + uploadId, uploadProperties.getSessionTtl(), TimeUnit.HOURS);
+        long expireAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(uploadProperties.getSessionTtl());
+        stringRedisTemplate.opsForZSet().add(EXPIRING_KEY, objectName + SEPARATOR + storageUploadId, expireAt);
+        if (fileKeyName != null) {
+            stringRedisTemplate.opsForValue().set(fileKeyName, uploadId, uploadProperties.getSessionTtl(), TimeUnit.HOURS);
+        }
+        log.info("创建分片上传任务：{}，对象：{}，分片数：{}", uploadId, objectName, partCount);
+
+        Session session = new Session(objectName, storageUploadId, fileSize, partSize, partCount);
+        return toVO(uploadId, session);
+    }
+
+    /**
+     * 上传一个分片
+     *
+     * @param uploadId
+     * @param partNumber
+     * @param inputStream
+     * @param size
+     */
+    public void uploadPart(String uploadId, Integer partNumber, InputStream inputStream, long size) {
+        Session session = requireSession(uploadId);
+        if (partNumber == null || partNumber < 1 || partNumber > session.partCount || size != session.expectedSize(partNumber)) {
+            throw new UploadFailedException(MessageConstant.UPLOAD_PART_INVALID);
+        }
+
+        String eTag = objectStorage.uploadPart(session.objectName, session.storageUploadId, partNumber, inputStream, size);
+        // 记录已完成的分片，续传时跳过
+        stringRedisTemplate.opsForHash().put(SESSION_KEY + uploadId + PARTS_SUFFIX, String.valueOf(partNumber), eTag);
+        stringRedisTemplate.expire(SESSION_KEY + uploadId + PARTS_SUFFIX, uploadProperties.getSessionTtl(), TimeUnit.HOURS);
+    }
+
+    /**
+     * 合并所有分片
+     *
+     * @param uploadId
+     * @return
+     */
+    public String complete(String uploadId) {
+        Session session = requireSession(uploadId);
+        Map<Integer, String> partETags = loadParts(uploadId);
+        if (partETags.size() != session.partCount) {
+            throw new UploadFailedException(MessageConstant.UPLOAD_PARTS_INCOMPLETE);
+        }
+
+        String url = objectStorage.completeMultipart(session.objectName, session.storageUploadId, partETags);
+        stringRedisTemplate.delete(Arrays.asList(SESSION_KEY + uploadId, SESSION_KEY + uploadId + PARTS_SUFFIX));
+        stringRedisTemplate.opsForZSet().remove(EXPIRING_KEY, session.objectName + SEPARATOR + session.storageUploadId);
+        if (ImageVariantUtil.isImage(session.objectName)) {
+            imageDerivativeService.enqueue(session.objectName);
+        }
+        return url;
+    }
+
+    /**
+     * 取消上传任务
+     *
+     * @param uploadId
+     */
+    public void abort(String uploadId) {
+        Session session = requireSession(uploadId);
+        objectStorage.abortMultipart(session.objectName, session.storageUploadId);
+        stringRedisTemplate.delete(Arrays.asList(SESSION_KEY + uploadId, SESSION_KEY + uploadId + PARTS_SUFFIX));
+        stringRedisTemplate.opsForZSet().remove(EXPIRING_KEY, session.objectName + SEPARATOR + session.storageUploadId);
+        log.info("取消分片上传任务：{}", uploadId);
+    }
+
+    /**
+     * 取消已经过期的上传任务在对象存储中的分片上传
+     *
+     * @return 取消的任务数
+     */
+    public int abortExpired() {
+        long deadline = System.currentTimeMillis() - ABORT_DELAY_MILLIS;
+        int aborted = 0;
+        Set<String> members;
+        do {
+            members = stringRedisTemplate.opsForZSet().rangeByScore(EXPIRING_KEY, 0, deadline, 0, ABORT_BATCH_SIZE);
+            if (members == null) {
+                break;
+            }
+            for (String member : members) {
+                // 多个节点同时清理时，只有移除成功的节点执行取消
+                Long removed = stringRedisTemplate.opsForZSet().remove(EXPIRING_KEY, member);
+                if (removed == null || removed == 0) {
+                    continue;
+                }
+                // 对象名称包含用户上传的扩展名，按最后一个分隔符拆分
+                int index = member.lastIndexOf(SEPARATOR);
+                String objectName = member.substring(0, index);
+                String storageUploadId = member.substring(index + 1);
+                try {
+                    objectStorage.abortMultipart(objectName, storageUploadId);
+                    aborted++;
+                } catch (Exception e) {
+                    // 分片上传可能已经被合并或取消，不再重试
+                    log.warn("取消过期的分片上传失败：{}，{}", objectName, e.getMessage());
+                }
+            }
+        } while (members.size() == ABORT_BATCH_SIZE);
+        if (aborted > 0) {
+            log.info("取消过期的分片上传：{}个", aborted);
+        }
+        return aborted;
+    }
+
+    private MultipartUploadVO toVO(String uploadId, Session session) {
+        List<Integer> uploadedParts = new ArrayList<>(loadParts(uploadId).keySet());
+        Collections.sort(uploadedParts);
+        return MultipartUploadVO.builder()
+                .uploadId(uploadId)
+                .partSize(session.partSize)
+                .partCount(session.partCount)
+                .uploadedParts(uploadedParts)
+                .build();
+    }
+
+    private Map<Integer, String> loadParts(String uploadId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(SESSION_KEY + uploadId + PARTS_SUFFIX);
+        Map<Integer, String> parts = new HashMap<>(entries.size());
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            parts.put(Integer.valueOf((String) entry.getKey()), (String) entry.getValue());
+        }
+        return parts;
+    }
+
+    /**
+     * 查询当前员工的上传任务，不存在或不属于当前员工时抛出异常
+     */
+    private Session requireSession(String uploadId) {
+        Session session = uploadId == null ? null : loadSession(uploadId);
+        if (session == null) {
+            throw new UploadFailedException(MessageConstant.UPLOAD_SESSION_NOT_FOUND);
+        }
+        return session;
+    }
+
+    private Session loadSession(String uploadId) {
+        Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(SESSION_KEY + uploadId);
+        if (fields.isEmpty() || !String.valueOf(BaseContext.getCurrentId()).equals(fields.get("owner"))) {
+            return null;
+        }
+        return new Session((String) fields.get("objectName"),
+                (String) fields.get("storageUploadId"),
+                Long.parseLong((String) fields.get("fileSize")),
+                Long.parseLong((String) fields.get("partSize")),
+                Integer.parseInt((String) fields.get("partCount")));
+    }
+
+    /**
+     * 上传任务的信息
+     */
+    private static class Session {
+        private final String objectName;
+        private final String storageUploadId;
+        private final long fileSize;
+        private final long partSize;
+        private final int partCount;
+
+        private Session(String objectName, String storageUploadId, long fileSize, long partSize, int partCount) {
+            this.objectName = objectName;
+            this.storageUploadId = storageUploadId;
+            this.fileSize = fileSize;
+            this.partSize = partSize;
+            this.partCount = partCount;
+        }
+
+        //除最后一片外都是partSize
+        private long expectedSize(int partNumber) {
+            return partNumber < partCount ? partSize : fileSize - partSize * (partCount - 1);
+        }
+    }
+}
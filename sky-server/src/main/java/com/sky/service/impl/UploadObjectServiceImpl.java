@@ -0,0 +1,190 @@
+package com.sky.service.impl;
+
+import com.sky.constant.MessageConstant;
+import com.sky.entity.UploadObject;
+import com.sky.exception.UploadFailedException;
+import com.sky.mapper.UploadObjectMapper;
+import com.sky.properties.UploadProperties;
+import com.sky.service.ImageDerivativeService;
+import com.sky.service.UploadObjectService;
+import com.sky.storage.ObjectStorage;
+import com.sky.utils.ImageVariantUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 按内容去重的文件上传
+ * 对象名称为内容的SHA-256加扩展名，相同内容只保存一份；索引表记录每个文件被菜品引用的次数，
+ * 引用次数为0且超过宽限期的文件由定时任务清理，图片的缩略图随原图一起清理；
+ * 清理时先把索引标记为清理中，删除对象后再删除索引，清理过程中相同内容的上传不会写入正在删除的对象，
+ * 菜品也不能再引用它：引用计数只在正常状态下增加，尚未提交的引用持有行锁，标记会等它提交后再判断
+ */
+@Service
+@Slf4j
+public class UploadObjectServiceImpl implements UploadObjectService {
+
+    private static final int GC_BATCH_SIZE = 100;
+
+    @Autowired
+    private UploadObjectMapper uploadObjectMapper;
+    @Autowired
+    private ObjectStorage objectStorage;
+    @Autowired
+    private UploadProperties uploadProperties;
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    /**
+     * 上传文件
+     * 上传的文件已经保存在本地临时文件中，先流式读取一遍计算哈希，命中时不再向对象存储发送数据
+     *
+     * @param originalFilename
+     * @param source
+     * @param size
+     * @return
+     */
+    public String upload(String originalFilename, InputStreamSource source, long size) {
+        String hash = sha256(source);
+
+        int dot = originalFilename == null ? -1 : originalFilename.lastIndexOf('.');
+        String extension = dot >= 0 ? originalFilename.substring(dot).toLowerCase() : "";
+
+        // 1. 内容相同的文件已经存在，刷新成功后直接返回；刷新成功后清理任务不会再删除它
+        UploadObject existing = uploadObjectMapper.getByHash(hash);
+        if (existing != null) {
+            if (uploadObjectMapper.touch(hash) > 0) {
+                log.info("文件已存在，跳过上传：{}", existing.getUrl());
+                return existing.getUrl();
+            }
+            // 同名对象正在被清理，以随机名称上传，不参与去重
+            log.info("相同内容的文件正在清理，使用新的对象名称上传：{}", existing.getObjectName());
+            String objectName = UUID.randomUUID().toString() + extension;
+            String url = put(objectName, source, size);
+            if (ImageVariantUtil.isImage(objectName)) {
+                imageDerivativeService.enqueue(objectName);
+            }
+            return url;
+        }
+
+        // 2. 以内容哈希命名上传，并发上传相同内容时写入的是同一个对象；
+        //    索引不存在时清理任务已经删除了对象，不会和这次上传冲突
+        String objectName = hash + extension;
+        String url = put(objectName, source, size);
+
+        uploadObjectMapper.insert(UploadObject.builder()
+                .hash(hash)
+                .objectName(objectName)
+                .url(url)
+                .size(size)
+                .build());
+
+        // 3. 新上传的图片异步生成缩略图
+        if (ImageVariantUtil.isImage(objectName)) {
+            imageDerivativeService.enqueue(objectName);
+        }
+        return url;
+    }
+
+    /**
+     * 增加文件的引用
+     * 文件已经被清理任务认领时拒绝引用，菜品所在的事务随之回滚，不会留下指向已删除文件的菜品
+     *
+     * @param url
+     */
+    public void retain(String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        if (uploadObjectMapper.addRefCount(url, 1) == 0 && uploadObjectMapper.countRemoving(url) > 0) {
+            throw new UploadFailedException(MessageConstant.UPLOAD_OBJECT_REMOVED);
+        }
+    }
+
+    /**
+     * 减少文件的引用
+     *
+     * @param url
+     */
+    public void release(String url) {
+        if (url != null && !url.isEmpty()) {
+            uploadObjectMapper.addRefCount(url, -1);
+        }
+    }
+
+    /**
+     * 清理没有引用的文件
+     * 删除前再按菜品表和套餐表确认一次，计数有偏差（例如套餐图片没有计数）时校正计数而不删除
+     *
+     * @return
+     */
+    public int collectGarbage() {
+        LocalDateTime before = LocalDateTime.now().minusHours(uploadProperties.getGcGracePeriod());
+        int removed = 0;
+        List<UploadObject> candidates;
+        do {
+            candidates = uploadObjectMapper.listUnreferenced(before, GC_BATCH_SIZE);
+            for (UploadObject candidate : candidates) {
+                // 1. 标记为清理中，失败说明刚被上传或引用，或者其他节点正在清理；
+                //    标记成功后引用计数不再变化，下面的确认不会漏掉之后才提交的菜品
+                if (uploadObjectMapper.markRemoving(candidate.getHash(), before) == 0) {
+                    continue;
+                }
+                int references = uploadObjectMapper.countReferences(candidate.getUrl());
+                if (references > 0) {
+                    uploadObjectMapper.setRefCount(candidate.getHash(), references);
+                    continue;
+                }
+                // 2. 先删除对象再删除索引：索引存在期间相同内容的上传不会写入这个对象名称
+                objectStorage.delete(candidate.getObjectName());
+                if (ImageVariantUtil.isImage(candidate.getObjectName())) {
+                    imageDerivativeService.delete(candidate.getObjectName());
+                }
+                uploadObjectMapper.deleteRemoving(candidate.getHash());
+                removed++;
+            }
+        } while (candidates.size() == GC_BATCH_SIZE);
+        if (removed > 0) {
+            log.info("清理没有引用的文件{}个", removed);
+        }
+        return removed;
+    }
+
+    private String put(String objectName, InputStreamSource source, long size) {
+        try (InputStream inputStream = source.getInputStream()) {
+            return objectStorage.put(objectName, inputStream, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(InputStreamSource source) {
+        try (InputStream inputStream = source.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sky.task;
+
+import com.sky.service.CategoryCounterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务类，校正分类引用计数
+ */
+@Component
+@Slf4j
+public class CategoryCounterTask implements ApplicationRunner {
+
+    @Autowired
+    private CategoryCounterService categoryCounterService;
+
+    /**
+     * 启动时重建一次，保证计数表从一开始就是准确的
+     *
+     * @param args
+     */
+    public void run(ApplicationArguments args) {
+        categoryCounterService.rebuild();
+    }
+
+    /**
+     * 每天凌晨3点按菜品表和套餐表重建计数，修正绕过业务层的修改造成的偏差
+     */
+    @Scheduled(cron = "${sky.cache.category-counter-repair-cron:0 0 3 * * ?}")
+    public void repair() {
+        categoryCounterService.rebuild();
+    }
+}
@@ -0,0 +1,36 @@
+package com.sky.task;
+
+import com.sky.service.ImageDerivativeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务类，处理图片缩略图队列中遗留的任务
+ */
+@Component
+@Slf4j
+public class ImageDerivativeTask {
+
+    @Autowired
+    private ImageDerivativeService imageDerivativeService;
+
+    /**
+     * 超时的任务放回队列，再提交待处理的任务
+     * 服务启动后第一次执行即恢复上次停止时未完成的任务
+     */
+    @Scheduled(fixedDelayString = "${sky.image.poll-interval:10000}")
+    public void dispatch() {
+        imageDerivativeService.recoverStale();
+        imageDerivativeService.dispatchPending();
+    }
+
+    /**
+     * 每天为已有的菜品图片补充任务，登记的任务由上面的定时任务分批处理
+     */
+    @Scheduled(cron = "${sky.image.backfill-cron:0 30 4 * * ?}")
+    public void backfill() {
+        imageDerivativeService.backfill();
+    }
+}
@@ -0,0 +1,38 @@
+package com.sky.task;
+
+import com.sky.service.MultipartUploadService;
+import com.sky.service.UploadObjectService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务类，清理没有引用的上传文件和过期的分片上传
+ */
+@Component
+@Slf4j
+public class UploadObjectTask {
+
+    @Autowired
+    private UploadObjectService uploadObjectService;
+
+    @Autowired
+    private MultipartUploadService multipartUploadService;
+
+    /**
+     * 每天凌晨4点清理超过宽限期仍然没有被引用的文件
+     */
+    @Scheduled(cron = "${sky.upload.gc-cron:0 0 4 * * ?}")
+    public void collectGarbage() {
+        uploadObjectService.collectGarbage();
+    }
+
+    /**
+     * 定期取消过期的分片上传，否则对象存储中已上传的分片会一直保留
+     */
+    @Scheduled(fixedDelayString = "${sky.upload.abort-interval:3600000}")
+    public void abortExpiredMultipart() {
+        multipartUploadService.abortExpired();
+    }
+}
@@ -0,0 +1,11 @@
+-- 分类引用计数表：每个分类下起售、停售的菜品和套餐数量
+-- 由业务层在菜品、套餐写操作的同一事务中增量维护，定时任务负责校正
+create table if not exists category_counter
+(
+    category_id      bigint not null comment '分类id',
+    dish_on_sale     int    not null default 0 comment '起售中的菜品数量',
+    dish_off_sale    int    not null default 0 comment '停售中的菜品数量',
+    setmeal_on_sale  int    not null default 0 comment '起售中的套餐数量',
+    setmeal_off_sale int    not null default 0 comment '停售中的套餐数量',
+    primary key (category_id)
+) comment '分类引用计数';
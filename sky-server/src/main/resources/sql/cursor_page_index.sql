@@ -0,0 +1,14 @@
+-- 游标分页使用的索引：按排序字段建立联合索引，翻到第N页时从上一页的最后一条直接定位，不需要全表扫描和排序
+-- 菜品、员工按 create_time desc, id desc 排序；分类按 sort asc, create_time asc, id asc 排序
+-- 创建时间为空的旧数据先按修改时间补齐，之后不再允许为空，游标条件中的 is null 分支会被优化掉
+update dish set create_time = coalesce(update_time, now()) where create_time is null;
+update employee set create_time = coalesce(update_time, now()) where create_time is null;
+update category set create_time = coalesce(update_time, now()) where create_time is null;
+
+alter table dish modify create_time datetime not null comment '创建时间';
+alter table employee modify create_time datetime not null comment '创建时间';
+alter table category modify create_time datetime not null comment '创建时间';
+
+alter table dish add index idx_create_time_id (create_time, id);
+alter table employee add index idx_create_time_id (create_time, id);
+alter table category add index idx_sort_create_time_id (sort, create_time, id);
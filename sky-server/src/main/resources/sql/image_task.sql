@@ -0,0 +1,15 @@
+-- 图片处理任务表：上传的图片生成缩略图的持久化队列，服务重启后未完成的任务会继续处理
+-- 已经建表的环境执行：alter table image_task add key idx_object_name (object_name);
+create table if not exists image_task
+(
+    id          bigint auto_increment comment '主键',
+    object_name varchar(255) not null comment '原图的对象名称',
+    status      int          not null default 0 comment '0 待处理 1 处理中 2 已完成 3 失败',
+    attempts    int          not null default 0 comment '已尝试的次数',
+    last_error  varchar(500) comment '最后一次失败的原因',
+    create_time datetime     not null comment '创建时间',
+    update_time datetime     not null comment '状态变化的时间',
+    primary key (id),
+    key idx_status_update_time (status, update_time),
+    key idx_object_name (object_name)
+) comment '图片处理任务';
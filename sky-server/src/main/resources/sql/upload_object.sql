@@ -0,0 +1,18 @@
+-- 上传文件索引表：按内容的SHA-256去重，相同内容只保存一份
+-- ref_count 为引用该文件的菜品数量，由业务层维护；定时任务清理长时间没有引用的文件
+-- 清理时先把 status 改为 1，删除对象后再删除记录，清理中的文件不会被新的上传复用
+-- 已经建表的环境执行：alter table upload_object add column status int not null default 0 comment '0 正常 1 清理中' after ref_count;
+create table if not exists upload_object
+(
+    hash        char(64)     not null comment '文件内容的SHA-256',
+    object_name varchar(255) not null comment '对象存储中的对象名称',
+    url         varchar(255) not null comment '文件访问路径',
+    size        bigint       not null comment '文件大小（字节）',
+    ref_count   int          not null default 0 comment '引用次数',
+    status      int          not null default 0 comment '0 正常 1 清理中',
+    create_time datetime     not null comment '创建时间',
+    update_time datetime     not null comment '最近一次上传或引用变化的时间',
+    primary key (hash),
+    unique key idx_url (url),
+    key idx_ref_count_update_time (ref_count, update_time)
+) comment '上传文件索引';